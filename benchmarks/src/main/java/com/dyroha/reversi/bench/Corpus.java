@@ -0,0 +1,73 @@
+package com.dyroha.reversi.bench;
+
+import java.util.Random;
+
+import com.dyroha.reversi.ReversiGame;
+
+/**
+ * The positions the benchmarks run on, made by seeded random play so every run and every machine
+ * measures the same positions. Positions are spread from the opening to the board being three
+ * quarters full, and the player to move always has a move
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class Corpus {
+	static final long SEED = 20210427L;
+	static final int POSITIONS = 16;
+
+	// private constructor to hide the public super one
+	private Corpus() {}
+
+	/**
+	 * makes the positions for a size of board
+	 * @param size the size of the board
+	 * @return the positions, the same every run
+	 */
+	static ReversiGame[] create(int size) {
+		Random random = new Random(SEED + size);
+		ReversiGame[] positions = new ReversiGame[POSITIONS];
+		int[] moves = new int[size * size];
+		ReversiGame game = new ReversiGame(size);
+		int ply = 0;
+		int made = 0;
+		// one game is copied as it goes, from a few moves in to three quarters of the board filled,
+		// big boards take too long to play a whole game per position
+		while (made < POSITIONS) {
+			int target = 4 + (int) ((long) (size * size - 8) * 3 * made / (4 * POSITIONS));
+			if (game.isGameOver()) {
+				game = new ReversiGame(size);
+				ply = 0;
+			} else if (ply >= target && game.testForValidTurn(game.getCurrentPlayerChar())) {
+				positions[made++] = new ReversiGame(game);
+			} else {
+				int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+				if (count == 0) {
+					game.nextTurn();
+				} else {
+					int move = moves[random.nextInt(count)];
+					game.placePiece(move / size, move % size);
+				}
+				ply++;
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * picks a seeded random valid move in each position
+	 * @param positions positions where the player to move has a move
+	 * @return the move for each position as (y * size + x)
+	 */
+	static int[] moves(ReversiGame[] positions) {
+		Random random = new Random(SEED);
+		int[] chosen = new int[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			ReversiGame game = positions[i];
+			int[] moves = new int[game.getSize() * game.getSize()];
+			int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+			chosen[i] = moves[random.nextInt(count)];
+		}
+		return chosen;
+	}
+}
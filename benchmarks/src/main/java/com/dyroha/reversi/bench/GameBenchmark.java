@@ -0,0 +1,113 @@
+package com.dyroha.reversi.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dyroha.reversi.ReversiGame;
+
+/**
+ * Times the ReversiGame calls made for every move of a game, on the seeded Corpus at each board
+ * size, so the cost of each call can be compared as boards grow. Each call cycles through the
+ * positions so no one position dominates
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+	@Param({ "8", "16", "64", "256" })
+	public int size;
+
+	private ReversiGame[] positions;
+	private int[] moves;
+	private int[] turns;
+	private String[] boards;
+	private int[] validMoves;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		positions = Corpus.create(size);
+		moves = Corpus.moves(positions);
+		turns = new int[positions.length];
+		boards = new String[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			// the toString form is "turn;size;board"
+			String[] parts = positions[i].toString().split(";");
+			turns[i] = Integer.parseInt(parts[0]);
+			boards[i] = parts[2];
+		}
+		validMoves = new int[size * size];
+	}
+
+	private int next() {
+		next = (next + 1) % positions.length;
+		return next;
+	}
+
+	/**
+	 * places a piece and takes it back, the cost of one move
+	 */
+	@Benchmark
+	public int placePiece() {
+		int i = next();
+		ReversiGame game = positions[i];
+		game.placePiece(moves[i] / size, moves[i] % size);
+		int count = game.getBlackCount();
+		game.unmakeMove();
+		return count;
+	}
+
+	@Benchmark
+	public boolean testForValidTurn() {
+		ReversiGame game = positions[next()];
+		return game.testForValidTurn(game.getCurrentPlayerChar());
+	}
+
+	@Benchmark
+	public int getValidMoves() {
+		ReversiGame game = positions[next()];
+		return game.getValidMoves(game.getCurrentPlayerChar(), validMoves);
+	}
+
+	@Benchmark
+	public boolean isGameOver() {
+		return positions[next()].isGameOver();
+	}
+
+	/**
+	 * the piece counts, kept up to date by each move rather than counted
+	 */
+	@Benchmark
+	public int countPieces() {
+		ReversiGame game = positions[next()];
+		return game.getBlackCount() + game.getWhiteCount();
+	}
+
+	@Benchmark
+	public String toStringBoard() {
+		return positions[next()].toString();
+	}
+
+	@Benchmark
+	public ReversiGame parse() {
+		int i = next();
+		return new ReversiGame(turns[i], size, boards[i]);
+	}
+}
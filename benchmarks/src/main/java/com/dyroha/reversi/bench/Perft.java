@@ -0,0 +1,95 @@
+package com.dyroha.reversi.bench;
+
+import com.dyroha.reversi.ReversiGame;
+
+/**
+ * Counts every position reachable from the start of a game in a number of plies, to check a move
+ * generator against known counts. A pass is a ply of its own and a game that ends early counts as
+ * one position however many plies are left. The 8x8 counts are the published ones, the others
+ * were checked against the original char[][] board up to depth 7
+ * <p>
+ * Usage: Perft [size] [depth]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public final class Perft {
+	private static final long[] GOLDEN_8 = { 1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284 };
+	// bigger boards only differ from 8x8 once moves can reach the edges
+	private static final long[] GOLDEN_16 = { 1, 4, 12, 56, 244, 1396, 8200, 55180, 392268, 3046196 };
+	private static final long[] GOLDEN_64 = GOLDEN_16;
+	private static final long[] GOLDEN_256 = { 1, 4, 12, 56, 244, 1396, 8200, 55180, 392268 };
+
+	// private constructor to hide the public super one
+	private Perft() {}
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : golden(size).length - 1;
+		System.out.println("depth\tpositions\ttime (ms)\tgolden");
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			long start = System.nanoTime();
+			long positions = count(new ReversiGame(size), depth);
+			long time = (System.nanoTime() - start) / 1_000_000;
+			long[] golden = golden(size);
+			String check = depth < golden.length ? (golden[depth] == positions ? "ok" : "expected " + golden[depth]) : "";
+			System.out.printf("%d\t%d\t%d\t%s%n", depth, positions, time, check);
+		}
+	}
+
+	/**
+	 * counts the positions reachable from a game, which is left as it was
+	 * @param game the game to count from
+	 * @param depth the number of plies
+	 * @return the number of positions
+	 */
+	public static long count(ReversiGame game, int depth) {
+		return count(game, depth, new int[depth + 1][game.getSize() * game.getSize()]);
+	}
+
+	private static long count(ReversiGame game, int depth, int[][] moveLists) {
+		if (depth == 0)
+			return 1;
+		int[] moves = moveLists[depth];
+		int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+		if (count == 0) {
+			if (game.isGameOver())
+				return 1;
+			game.makePass();
+			long positions = count(game, depth - 1, moveLists);
+			game.unmakeMove();
+			return positions;
+		}
+		if (depth == 1)
+			return count;
+		long positions = 0;
+		int size = game.getSize();
+		for (int i = 0; i < count; i++) {
+			game.makeMove(moves[i] / size, moves[i] % size);
+			positions += count(game, depth - 1, moveLists);
+			game.unmakeMove();
+		}
+		return positions;
+	}
+
+	/**
+	 * gets the known counts from the start of a game
+	 * @param size 8, 16, 64 or 256
+	 * @return the counts by depth, starting at depth 0
+	 * @throws IllegalArgumentException for other sizes
+	 */
+	public static long[] golden(int size) {
+		switch (size) {
+			case 8:
+				return GOLDEN_8.clone();
+			case 16:
+				return GOLDEN_16.clone();
+			case 64:
+				return GOLDEN_64.clone();
+			case 256:
+				return GOLDEN_256.clone();
+			default:
+				throw new IllegalArgumentException("No known counts for size " + size);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.dyroha.reversi.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dyroha.reversi.ReversiGame;
+
+/**
+ * Times Perft from the start of a game. The count is checked against the golden count before
+ * timing starts, so a faster engine that generates the wrong moves fails instead of looking good
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+	@Param({ "8", "16", "64", "256" })
+	public int size;
+
+	@Param({ "7" })
+	public int depth;
+
+	private ReversiGame game;
+
+	@Setup
+	public void setUp() {
+		game = new ReversiGame(size);
+		long[] golden = Perft.golden(size);
+		if (depth >= golden.length)
+			throw new IllegalStateException("No golden count for size " + size + " depth " + depth);
+		long positions = Perft.count(game, depth);
+		if (positions != golden[depth])
+			throw new IllegalStateException("Perft(" + depth + ") on size " + size + " counted " + positions
+					+ ", expected " + golden[depth]);
+	}
+
+	@Benchmark
+	public long perft() {
+		return Perft.count(game, depth);
+	}
+}
@@ -0,0 +1,118 @@
+package com.dyroha.reversi;
+
+import java.util.Arrays;
+
+/**
+ * A finished game from a GameArchive: its moves, who played it and the position it ended in. The
+ * moves have been replayed through a ReversiGame so they are known to be valid. Passes are left
+ * out of the moves, as they are in the archive formats, and made whenever a player can't move
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class ArchivedGame {
+	private final int tournament;
+	private final int blackPlayer;
+	private final int whitePlayer;
+	private final int[] moves;
+	private final ReversiGame game;
+
+	/**
+	 * Creates an ArchivedGame from a played game's move history, with no tournament or players
+	 * @param game the game, its moves are taken from getMove
+	 */
+	public ArchivedGame(ReversiGame game) {
+		this(0, 0, 0, placements(game), game);
+	}
+
+	private ArchivedGame(int tournament, int blackPlayer, int whitePlayer, int[] moves, ReversiGame game) {
+		this.tournament = tournament;
+		this.blackPlayer = blackPlayer;
+		this.whitePlayer = whitePlayer;
+		this.moves = moves;
+		this.game = game;
+	}
+
+	/**
+	 * replays moves from the start of a game, checking each is valid
+	 * @param size the size of the board
+	 * @param tournament the tournament number, 0 if unknown
+	 * @param blackPlayer black's player number, 0 if unknown
+	 * @param whitePlayer white's player number, 0 if unknown
+	 * @param moves the spaces placed as (y * size + x), without passes
+	 * @param count the number of moves
+	 * @return the game, null if a move was invalid
+	 */
+	static ArchivedGame replay(int size, int tournament, int blackPlayer, int whitePlayer, int[] moves, int count) {
+		ReversiGame game = new ReversiGame(size);
+		for (int i = 0; i < count; i++) {
+			if (game.isGameOver())
+				return null;
+			if (!game.testForValidTurn(game.getCurrentPlayerChar()))
+				game.makePass();
+			int move = moves[i];
+			if (move < 0 || move >= size * size || !game.makeMove(move / size, move % size))
+				return null;
+		}
+		return new ArchivedGame(tournament, blackPlayer, whitePlayer, Arrays.copyOf(moves, count), game);
+	}
+
+	private static int[] placements(ReversiGame game) {
+		int[] moves = new int[game.getMoveCount()];
+		int count = 0;
+		for (int i = 0; i < game.getMoveCount(); i++) {
+			if (game.getMove(i) >= 0)
+				moves[count++] = game.getMove(i);
+		}
+		return Arrays.copyOf(moves, count);
+	}
+
+	/**
+	 * gets the tournament the game was played in
+	 * @return the archive's tournament number, 0 if unknown
+	 */
+	public int getTournament() {
+		return tournament;
+	}
+
+	/**
+	 * gets black's player
+	 * @return the archive's player number, 0 if unknown
+	 */
+	public int getBlackPlayer() {
+		return blackPlayer;
+	}
+
+	/**
+	 * gets white's player
+	 * @return the archive's player number, 0 if unknown
+	 */
+	public int getWhitePlayer() {
+		return whitePlayer;
+	}
+
+	/**
+	 * gets the number of pieces placed
+	 * @return the number of moves, passes not included
+	 */
+	public int getMoveCount() {
+		return moves.length;
+	}
+
+	/**
+	 * gets one of the moves
+	 * @param index the move, 0 for the first
+	 * @return the space placed as (y * size + x)
+	 */
+	public int getMove(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * gets the game as it was after the last move, with its whole move history
+	 * @return the game
+	 */
+	public ReversiGame getGame() {
+		return game;
+	}
+}
@@ -0,0 +1,41 @@
+package com.dyroha.reversi;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Images from the resources folder, each read the first time it is asked for and kept for the rest
+ * of the program, so new sessions and loaded ones don't decode the same files again
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class Assets {
+	private static final Map<String, BufferedImage> images = new HashMap<>();
+
+	// private constructor to hide the public super one
+	private Assets() {}
+
+	/**
+	 * gets an image, reading it the first time
+	 * @param name the file name in the resources folder, such as "black_piece.png"
+	 * @return the image, shared by everything that asks for it so it must not be drawn on
+	 * @throws IOException if the image can't be found or read
+	 */
+	static synchronized BufferedImage image(String name) throws IOException {
+		BufferedImage image = images.get(name);
+		if (image == null) {
+			URL url = Assets.class.getResource("/resources/" + name);
+			if (url == null)
+				throw new IOException("Missing resource " + name);
+			image = ImageIO.read(url);
+			images.put(name, image);
+		}
+		return image;
+	}
+}
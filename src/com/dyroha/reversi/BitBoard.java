@@ -0,0 +1,223 @@
+package com.dyroha.reversi;
+
+/**
+ * A Board for the standard 8x8 game stored as one 64 bit long per player, bit (y * 8 + x) being
+ * the space at row y and collumn x. Moves and flips are found for every space at once by shifting
+ * and masking whole boards (a Kogge-Stone fill) rather than walking one space at a time. Finding
+ * every valid move costs about as much as checking a single space, so both players' moves are
+ * kept up to date after each change
+ * 
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+class BitBoard implements Board {
+	/**
+	 * the only size a BitBoard can be
+	 */
+	static final int SIZE = 8;
+
+	private static final long NOT_FIRST_COLLUMN = 0xfefefefefefefefeL;
+	private static final long NOT_LAST_COLLUMN = 0x7f7f7f7f7f7f7f7fL;
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final int[] SHIFTS = new int[DIRECTIONS.length];
+	private static final long[] MASKS = new long[DIRECTIONS.length];
+
+	static {
+		for (Direction dir : DIRECTIONS) {
+			SHIFTS[dir.ordinal()] = dir.getDy() * SIZE + dir.getDx();
+			// a shift that moves right must not wrap into the first collumn and vice versa
+			if (dir.getDx() > 0)
+				MASKS[dir.ordinal()] = NOT_FIRST_COLLUMN;
+			else if (dir.getDx() < 0)
+				MASKS[dir.ordinal()] = NOT_LAST_COLLUMN;
+			else
+				MASKS[dir.ordinal()] = -1L;
+		}
+	}
+
+	private long black;
+	private long white;
+	private long blackMoves;
+	private long whiteMoves;
+
+	@Override
+	public int getSize() {
+		return SIZE;
+	}
+
+	@Override
+	public char getPiece(int y, int x) {
+		long bit = bit(y, x);
+		if ((black & bit) != 0)
+			return 'b';
+		if ((white & bit) != 0)
+			return 'w';
+		return '-';
+	}
+
+	@Override
+	public void setPiece(int y, int x, char piece) {
+		long bit = bit(y, x);
+		black &= ~bit;
+		white &= ~bit;
+		if (piece == 'b')
+			black |= bit;
+		else if (piece == 'w')
+			white |= bit;
+		updateMoves();
+	}
+
+	@Override
+	public void getPieces(long[] black, long[] white) {
+		black[0] = this.black;
+		white[0] = this.white;
+	}
+
+	@Override
+	public void setPieces(long[] black, long[] white) {
+		this.black = black[0];
+		this.white = white[0];
+		updateMoves();
+	}
+
+	@Override
+	public Board copy() {
+		BitBoard copy = new BitBoard();
+		copy.black = black;
+		copy.white = white;
+		copy.blackMoves = blackMoves;
+		copy.whiteMoves = whiteMoves;
+		return copy;
+	}
+
+	@Override
+	public boolean hasValidMove(char colour) {
+		return (colour == 'b' ? blackMoves : whiteMoves) != 0;
+	}
+
+	@Override
+	public int countValidMoves(char colour) {
+		return Long.bitCount(colour == 'b' ? blackMoves : whiteMoves);
+	}
+
+	@Override
+	public int getValidMoves(char colour, int[] moves) {
+		int count = 0;
+		for (long m = colour == 'b' ? blackMoves : whiteMoves; m != 0; m &= m - 1) {
+			moves[count++] = Long.numberOfTrailingZeros(m);
+		}
+		return count;
+	}
+
+	@Override
+	public int place(int y, int x, char colour, int[] flipped, int from) {
+		long move = bit(y, x);
+		if (((black | white) & move) != 0)
+			return 0;
+		long own = colour == 'b' ? black : white;
+		long opp = colour == 'b' ? white : black;
+		long flips = flips(move, own, opp);
+		if (flips == 0)
+			return 0;
+		own |= move | flips;
+		opp &= ~flips;
+		if (colour == 'b') {
+			black = own;
+			white = opp;
+		} else {
+			white = own;
+			black = opp;
+		}
+		updateMoves();
+		// bit indexes are already y * 8 + x
+		int count = 0;
+		for (long f = flips; f != 0; f &= f - 1) {
+			flipped[from + count++] = Long.numberOfTrailingZeros(f);
+		}
+		return count;
+	}
+
+	@Override
+	public void unplace(int y, int x, char colour, int[] flipped, int from, int count) {
+		long move = bit(y, x);
+		long flips = 0;
+		for (int i = from; i < from + count; i++) {
+			flips |= 1L << flipped[i];
+		}
+		if (colour == 'b') {
+			black &= ~(move | flips);
+			white |= flips;
+		} else {
+			white &= ~(move | flips);
+			black |= flips;
+		}
+		updateMoves();
+	}
+
+	@Override
+	public int count(char colour) {
+		return Long.bitCount(colour == 'b' ? black : white);
+	}
+
+	private void updateMoves() {
+		blackMoves = validMoves(black, white);
+		whiteMoves = validMoves(white, black);
+	}
+
+	/**
+	 * finds every space own can place a piece
+	 * @param own the pieces of the player to move
+	 * @param opp the pieces of their opponent
+	 * @return a board with a bit set for each valid move
+	 */
+	static long validMoves(long own, long opp) {
+		long empty = ~(own | opp);
+		long moves = 0;
+		for (int d = 0; d < SHIFTS.length; d++) {
+			long line = fill(own, opp, SHIFTS[d], MASKS[d]) & opp;
+			moves |= shift(line, SHIFTS[d]) & MASKS[d] & empty;
+		}
+		return moves;
+	}
+
+	/**
+	 * finds the pieces flipped by placing a piece
+	 * @param move a board with only the placed piece's bit set
+	 * @param own the pieces of the player to move
+	 * @param opp the pieces of their opponent
+	 * @return a board with a bit set for each flipped piece, 0 if the move is invalid
+	 */
+	static long flips(long move, long own, long opp) {
+		long flips = 0;
+		for (int d = 0; d < SHIFTS.length; d++) {
+			long line = fill(move, opp, SHIFTS[d], MASKS[d]) & opp;
+			// the line only flips if it is capped by one of own's pieces
+			if ((shift(line, SHIFTS[d]) & MASKS[d] & own) != 0)
+				flips |= line;
+		}
+		return flips;
+	}
+
+	/**
+	 * extends each set bit of gen along a direction for as long as it covers bits of pro
+	 */
+	private static long fill(long gen, long pro, int shift, long mask) {
+		pro &= mask;
+		gen |= pro & shift(gen, shift);
+		pro &= shift(pro, shift);
+		gen |= pro & shift(gen, 2 * shift);
+		pro &= shift(pro, 2 * shift);
+		gen |= pro & shift(gen, 4 * shift);
+		return gen;
+	}
+
+	private static long shift(long b, int shift) {
+		return shift > 0 ? b << shift : b >>> -shift;
+	}
+
+	private static long bit(int y, int x) {
+		if (y < 0 || y >= SIZE || x < 0 || x >= SIZE)
+			throw new ArrayIndexOutOfBoundsException("Space " + y + "," + x + " is outside the board");
+		return 1L << (y * SIZE + x);
+	}
+}
@@ -0,0 +1,107 @@
+package com.dyroha.reversi;
+
+/**
+ * The storage and move logic behind a ReversiGame. Pieces are 'b' for black, 'w' for white and
+ * '-' for an empty space
+ * 
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+interface Board {
+
+	/**
+	 * gets the size of the board
+	 * @return height/width of the board
+	 */
+	int getSize();
+
+	/**
+	 * gets a board space's state
+	 * @param y the y position (row) of the space
+	 * @param x the x position (collumn) of the space
+	 * @return 'b', 'w' or '-'
+	 */
+	char getPiece(int y, int x);
+
+	/**
+	 * sets a board space's state without flipping anything, used when building a board
+	 * @param y the y position (row) of the space
+	 * @param x the x position (collumn) of the space
+	 * @param piece 'b', 'w' or '-'
+	 */
+	void setPiece(int y, int x, char piece);
+
+	/**
+	 * copies every piece into a pair of bitsets, bit (y * size + x) of each being the space at row
+	 * y and collumn x
+	 * @param black bitset for black's pieces, (size * size + 63) / 64 longs, cleared first
+	 * @param white bitset for white's pieces, the same length
+	 */
+	void getPieces(long[] black, long[] white);
+
+	/**
+	 * replaces every piece with those in a pair of bitsets laid out as by getPieces, without
+	 * flipping anything, used when building a board
+	 * @param black bitset of black's pieces
+	 * @param white bitset of white's pieces, with no bit set in both
+	 */
+	void setPieces(long[] black, long[] white);
+
+	/**
+	 * creates an independent copy of the board
+	 * @return the copy
+	 */
+	Board copy();
+
+	/**
+	 * checks if said player has any valid moves on the board
+	 * @param colour the player ('b' or 'w')
+	 * @return true if the player can go, otherwise false
+	 */
+	boolean hasValidMove(char colour);
+
+	/**
+	 * counts the spaces said player could place a piece
+	 * @param colour the player ('b' or 'w')
+	 * @return the number of valid moves
+	 */
+	int countValidMoves(char colour);
+
+	/**
+	 * lists the spaces said player could place a piece, each written as (y * size + x)
+	 * @param colour the player ('b' or 'w')
+	 * @param moves buffer for the moves, at least size * size long
+	 * @return the number of valid moves written
+	 */
+	int getValidMoves(char colour, int[] moves);
+
+	/**
+	 * places a piece and flips appropriate tiles if it is a valid move. Each flipped space is
+	 * written to flipped as (y * size + x) so nothing needs to be allocated per move
+	 * @param y y position (row) of the space
+	 * @param x x position (collumn) of the space
+	 * @param colour the player placing the piece ('b' or 'w')
+	 * @param flipped buffer for the flipped spaces, with at least 8 * size free after from
+	 * @param from where in flipped to start writing
+	 * @return the number of pieces flipped, 0 if it was an invalid move and nothing was placed
+	 */
+	int place(int y, int x, char colour, int[] flipped, int from);
+
+	/**
+	 * takes back a piece placed by place, removing it and flipping back what it flipped
+	 * @param y y position (row) of the space
+	 * @param x x position (collumn) of the space
+	 * @param colour the player that placed the piece ('b' or 'w')
+	 * @param flipped buffer holding the flipped spaces written by place
+	 * @param from where in flipped the spaces start
+	 * @param count the number of flipped spaces
+	 */
+	void unplace(int y, int x, char colour, int[] flipped, int from, int count);
+
+	/**
+	 * counts a player's pieces on the board
+	 * @param colour the player ('b' or 'w')
+	 * @return the number of pieces
+	 */
+	int count(char colour);
+}
@@ -0,0 +1,261 @@
+package com.dyroha.reversi;
+
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.border.Border;
+import javax.swing.border.BevelBorder;
+
+/**
+ * A game board drawn as one component straight from a ReversiGame, rather than a component per
+ * space, so boards with thousands of spaces lay out and paint as quickly as small ones. Only the
+ * spaces inside the area being repainted are drawn, and after a move only the spaces the game
+ * says it changed are repainted. A press is turned into a space by dividing by the space size.
+ * Spaces of at least SMALL_SPACE pixels are drawn with the piece images scaled by SpriteCache,
+ * smaller ones are filled with each image's average colour a pixel at a time
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class BoardView extends JComponent {
+	/**
+	 * spaces smaller than this many pixels are filled with a colour instead of drawn with an image
+	 */
+	public static final int SMALL_SPACE = 4;
+
+	private static final Border HOVER_BORDER = BorderFactory.createBevelBorder(BevelBorder.LOWERED);
+
+	private final BufferedImage blankSpace;
+	private final BufferedImage blackPiece;
+	private final BufferedImage whitePiece;
+	private final List<SpaceListener> listeners = new ArrayList<>();
+	private final ReversiGame.ChangeListener changes = this::paintSpaces;
+	private ReversiGame game;
+	private int hoverY = -1;
+	private int hoverX = -1;
+	// the whole board a pixel per pixel, used when spaces are small
+	private BufferedImage pixels;
+
+	/**
+	 * Something told when a space on the board is pressed
+	 */
+	public interface SpaceListener {
+		/**
+		 * called when a space is pressed
+		 * @param y the y position (row) of the space
+		 * @param x the x position (collumn) of the space
+		 */
+		void spacePressed(int y, int x);
+	}
+
+	/**
+	 * Creates a BoardView
+	 * @param game the game to show
+	 * @param blankSpace an image for an empty space
+	 * @param blackPiece an image for a space with a black piece
+	 * @param whitePiece an image for a space with a white piece
+	 */
+	public BoardView(ReversiGame game, BufferedImage blankSpace, BufferedImage blackPiece, BufferedImage whitePiece) {
+		this.game = game;
+		game.addChangeListener(changes);
+		this.blankSpace = blankSpace;
+		this.blackPiece = blackPiece;
+		this.whitePiece = whitePiece;
+		MouseAdapter mouse = new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				int space = getSpaceSize();
+				int y = e.getY() / space;
+				int x = e.getX() / space;
+				if (y >= getBoardSize() || x >= getBoardSize())
+					return;
+				for (SpaceListener listener : new ArrayList<>(listeners)) {
+					listener.spacePressed(y, x);
+				}
+			}
+
+			@Override
+			public void mouseMoved(MouseEvent e) {
+				int space = getSpaceSize();
+				int y = e.getY() / space;
+				int x = e.getX() / space;
+				if (y >= getBoardSize() || x >= getBoardSize())
+					setHover(-1, -1);
+				else
+					setHover(y, x);
+			}
+
+			@Override
+			public void mouseExited(MouseEvent e) {
+				setHover(-1, -1);
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+	}
+
+	/**
+	 * adds a listener told whenever a space is pressed
+	 * @param listener the listener
+	 */
+	public void addSpaceListener(SpaceListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * sets the game to show
+	 * @param game the game
+	 */
+	public void setGame(ReversiGame game) {
+		this.game.removeChangeListener(changes);
+		this.game = game;
+		game.addChangeListener(changes);
+		repaint();
+	}
+
+	/**
+	 * gets the size of each space in pixels, the board fills the shorter side of the component
+	 * @return the space size, at least 1
+	 */
+	public int getSpaceSize() {
+		return Math.max(1, Math.min(getWidth(), getHeight()) / getBoardSize());
+	}
+
+	private int getBoardSize() {
+		return game.getSize();
+	}
+
+	/**
+	 * returns a square Dimension with the smallest of the parent's height and width as both height
+	 * and width values
+	 * @return a square Dimension object
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		Container box = getParent();
+		if (box == null)
+			return new Dimension(10, 10);
+		int s = Math.min(box.getWidth(), box.getHeight());
+		return new Dimension(s, s);
+	}
+
+	@Override
+	public Dimension getMinimumSize() {
+		return getPreferredSize();
+	}
+
+	@Override
+	public Dimension getMaximumSize() {
+		return getPreferredSize();
+	}
+
+	private void setHover(int y, int x) {
+		if (y == hoverY && x == hoverX)
+			return;
+		repaintSpace(hoverY, hoverX);
+		hoverY = y;
+		hoverX = x;
+		repaintSpace(y, x);
+	}
+
+	/**
+	 * paints just the spaces a move changed. Each is painted straight away rather than through
+	 * repaint, which would merge them into one rectangle covering every space between them
+	 */
+	private void paintSpaces(int[] spaces) {
+		if (!SwingUtilities.isEventDispatchThread()) {
+			SwingUtilities.invokeLater(() -> paintSpaces(spaces));
+			return;
+		}
+		// the first paint draws every space
+		if (!isShowing())
+			return;
+		int size = getBoardSize();
+		int space = getSpaceSize();
+		for (int changed : spaces) {
+			paintImmediately(changed % size * space, changed / size * space, space, space);
+		}
+	}
+
+	private void repaintSpace(int y, int x) {
+		if (y < 0)
+			return;
+		int space = getSpaceSize();
+		repaint(x * space, y * space, space, space);
+	}
+
+	/**
+	 * paints the spaces inside the clip
+	 */
+	@Override
+	protected void paintComponent(Graphics g) {
+		int size = getBoardSize();
+		int space = getSpaceSize();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		int firstY = Math.max(0, clip.y / space);
+		int firstX = Math.max(0, clip.x / space);
+		int lastY = Math.min(size - 1, (clip.y + clip.height - 1) / space);
+		int lastX = Math.min(size - 1, (clip.x + clip.width - 1) / space);
+		if (firstY > lastY || firstX > lastX)
+			return;
+		if (space < SMALL_SPACE) {
+			paintSmall(g, space, firstY, firstX, lastY, lastX);
+			return;
+		}
+
+		// fetched once a paint, every space is the same size
+		BufferedImage blank = SpriteCache.get(blankSpace, space, space);
+		BufferedImage black = SpriteCache.get(blackPiece, space, space);
+		BufferedImage white = SpriteCache.get(whitePiece, space, space);
+		for (int y = firstY; y <= lastY; y++) {
+			for (int x = firstX; x <= lastX; x++) {
+				char piece = game.getBoardPiece(y, x);
+				BufferedImage image = piece == 'b' ? black : piece == 'w' ? white : blank;
+				g.drawImage(image, x * space, y * space, null);
+			}
+		}
+		if (hoverY >= firstY && hoverY <= lastY && hoverX >= firstX && hoverX <= lastX)
+			HOVER_BORDER.paintBorder(this, g, hoverX * space, hoverY * space, space, space);
+	}
+
+	// fills each space's pixels with its image's average colour then draws them as one image
+	private void paintSmall(Graphics g, int space, int firstY, int firstX, int lastY, int lastX) {
+		int width = getBoardSize() * space;
+		if (pixels == null || pixels.getWidth() != width)
+			pixels = new BufferedImage(width, width, BufferedImage.TYPE_INT_RGB);
+		int[] data = ((DataBufferInt) pixels.getRaster().getDataBuffer()).getData();
+		int blank = SpriteCache.get(blankSpace, 1, 1).getRGB(0, 0);
+		int black = SpriteCache.get(blackPiece, 1, 1).getRGB(0, 0);
+		int white = SpriteCache.get(whitePiece, 1, 1).getRGB(0, 0);
+		for (int y = firstY; y <= lastY; y++) {
+			for (int x = firstX; x <= lastX; x++) {
+				char piece = game.getBoardPiece(y, x);
+				int colour = piece == 'b' ? black : piece == 'w' ? white : blank;
+				int start = y * space * width + x * space;
+				for (int row = 0; row < space; row++) {
+					for (int column = 0; column < space; column++) {
+						data[start + row * width + column] = colour;
+					}
+				}
+			}
+		}
+		int left = firstX * space;
+		int top = firstY * space;
+		int right = (lastX + 1) * space;
+		int bottom = (lastY + 1) * space;
+		g.drawImage(pixels, left, top, right, bottom, left, top, right, bottom, null);
+	}
+}
@@ -0,0 +1,473 @@
+package com.dyroha.reversi;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A computer player for reversi using a negamax alpha-beta search with iterative deepening. Each
+ * search deepens one ply at a time until its time budget runs out, then plays the best move from
+ * the deepest search that finished. Results are kept in a TranspositionTable so positions reached
+ * by more than one order of moves are only searched once.
+ * <p>
+ * With more than one thread the search is a Lazy SMP search: helper threads on a ForkJoinPool run
+ * the same search on their own copy of the game, sharing only the TranspositionTable, and fill it
+ * with results the main search then finds instead of searching itself.
+ * <p>
+ * Once few enough spaces are left on an 8x8 board the search hands over to an EndgameSolver and
+ * plays perfectly from there, and while the game is still in an OpeningBook it plays the book
+ * move without searching at all.
+ * <p>
+ * A player makes one search at a time, a chooseMove from another thread waits for the one before
+ * it to return. stop only stops the searches started before it was called, so a search that was
+ * stopped but hasn't returned yet can't carry on once the next one starts
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class ComputerPlayer implements Player {
+	private static final int MAX_DEPTH = 64;
+	private static final int WIN = 1_000_000;
+	private static final int INFINITY = Integer.MAX_VALUE;
+	// how many nodes are searched between checks of the clock
+	private static final int CLOCK_INTERVAL = 1024;
+
+	private final long timeBudget;
+	private final TranspositionTable table;
+	private final int threads;
+	private ForkJoinPool pool;
+	private int maxDepth = MAX_DEPTH;
+	private int endgameEmpties = EndgameSolver.DEFAULT_EMPTIES;
+	private EndgameSolver solver;
+	private OpeningBook book;
+	// held for the whole of each chooseMove, it is a lock so a waiting virtual thread doesn't pin its carrier
+	private final ReentrantLock searchLock = new ReentrantLock();
+	// counts calls to stop, a search stops once it changes from what it was when the search was asked for
+	private final AtomicInteger stops = new AtomicInteger();
+	private long nodes;
+	private int depthReached;
+	private int score;
+	private long elapsed;
+
+	/**
+	 * Creates a single threaded ComputerPlayer using the shared TranspositionTable and OpeningBook
+	 * @param timeBudget the time allowed to choose each move in milliseconds
+	 */
+	public ComputerPlayer(long timeBudget) {
+		this(timeBudget, TranspositionTable.shared(), 1);
+		this.book = OpeningBook.shared();
+	}
+
+	/**
+	 * Creates a single threaded ComputerPlayer
+	 * @param timeBudget the time allowed to choose each move in milliseconds
+	 * @param table where to keep search results, can be shared with other players
+	 */
+	public ComputerPlayer(long timeBudget, TranspositionTable table) {
+		this(timeBudget, table, 1);
+	}
+
+	/**
+	 * Creates a ComputerPlayer
+	 * @param timeBudget the time allowed to choose each move in milliseconds
+	 * @param table where to keep search results, can be shared with other players
+	 * @param threads the number of threads to search with
+	 */
+	public ComputerPlayer(long timeBudget, TranspositionTable table, int threads) {
+		this.timeBudget = timeBudget;
+		this.table = table;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * limits how deep each search may go, searches still stop early if they run out of time
+	 * @param maxDepth the deepest search in plies
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = Math.max(1, Math.min(maxDepth, MAX_DEPTH));
+	}
+
+	/**
+	 * sets how many empty spaces an 8x8 game must be down to before it is solved exactly
+	 * @param endgameEmpties the number of empty spaces, 0 to never solve
+	 */
+	public void setEndgameEmpties(int endgameEmpties) {
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	/**
+	 * sets the book to play opening moves from
+	 * @param book the book, null to always search
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * chooses a move for the current player of a game, the game itself is left unchanged
+	 * @param currentGame the game to choose a move in
+	 * @return the space to place a piece as (y * size + x), -1 if the current player has to pass
+	 */
+	@Override
+	public int chooseMove(ReversiGame currentGame) {
+		// read before waiting for the lock, so a stop while waiting stops this search too
+		int stopsAtStart = stops.get();
+		searchLock.lock();
+		try {
+			return chooseMove(currentGame, new Search(stopsAtStart));
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	private int chooseMove(ReversiGame currentGame, Search search) {
+		long start = search.start;
+		if (book != null) {
+			int move = book.getMove(currentGame);
+			if (move >= 0 && isValidMove(currentGame, move)) {
+				nodes = 0;
+				depthReached = 0;
+				score = book.getScore(currentGame);
+				elapsed = System.nanoTime() - start;
+				return move;
+			}
+		}
+
+		int empties = currentGame.getSize() * currentGame.getSize() - currentGame.getBlackCount()
+				- currentGame.getWhiteCount();
+		if (currentGame.getSize() == BitBoard.SIZE && empties <= endgameEmpties) {
+			if (solver == null)
+				solver = new EndgameSolver();
+			EndgameSolver.Solution solution = solver.solve(currentGame);
+			nodes = solution.getNodes();
+			depthReached = empties;
+			score = solution.getScore();
+			elapsed = System.nanoTime() - start;
+			return solution.getMove();
+		}
+
+		Searcher[] searchers = new Searcher[threads];
+		ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[threads];
+		for (int i = 0; i < threads; i++) {
+			searchers[i] = new Searcher(currentGame, i, search);
+		}
+		if (threads > 1 && pool == null)
+			pool = new ForkJoinPool(threads - 1);
+		for (int i = 1; i < threads; i++) {
+			helpers[i] = pool.submit(searchers[i]::search);
+		}
+		int bestMove = searchers[0].search();
+		// the main search has finished so anything the helpers are still doing is wasted
+		search.finished = true;
+		nodes = searchers[0].nodes;
+		for (int i = 1; i < threads; i++) {
+			helpers[i].join();
+			nodes += searchers[i].nodes;
+		}
+		depthReached = searchers[0].depthReached;
+		score = searchers[0].score;
+		elapsed = System.nanoTime() - start;
+		return bestMove;
+	}
+
+	private static boolean isValidMove(ReversiGame game, int move) {
+		int[] moves = new int[game.getSize() * game.getSize()];
+		int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * stops the search in progress, and any waiting to start, chooseMove returns straight away with
+	 * the best move found so far. Searches asked for after this aren't stopped
+	 */
+	public void stop() {
+		stops.incrementAndGet();
+	}
+
+	/**
+	 * forgets the positions searched and solved so far, so the player can play a new game as a new
+	 * player would without allocating another table and solver. The table is cleared even if it is
+	 * shared with other players
+	 */
+	public void clear() {
+		searchLock.lock();
+		try {
+			table.clear();
+			if (solver != null)
+				solver.clear();
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	/**
+	 * stops the threads used by the search, a later chooseMove starts them again
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * what the threads of one chooseMove share: when it started, how long it may take and whether
+	 * it has been stopped
+	 */
+	private class Search {
+		private final long start = System.nanoTime();
+		private final long budgetNanos = timeBudget > Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE
+				: timeBudget * 1_000_000;
+		private final int stopsAtStart;
+		private volatile boolean finished;
+
+		private Search(int stopsAtStart) {
+			this.stopsAtStart = stopsAtStart;
+		}
+
+		private boolean isOver() {
+			return finished || stops.get() != stopsAtStart || System.nanoTime() - start > budgetNanos;
+		}
+	}
+
+	/**
+	 * a single thread's search, with its own copy of the game
+	 */
+	private class Searcher {
+		private final ReversiGame game;
+		private final int id;
+		private final Search search;
+		private final int[][] moveLists;
+		private boolean outOfTime;
+		private long nodes;
+		private int depthReached;
+		private int score;
+
+		private Searcher(ReversiGame currentGame, int id, Search search) {
+			this.game = new ReversiGame(currentGame);
+			this.id = id;
+			this.search = search;
+			this.moveLists = new int[MAX_DEPTH + 1][];
+		}
+
+		private int search() {
+			int[] rootMoves = moveList(0);
+			int count = game.getValidMoves(game.getCurrentPlayerChar(), rootMoves);
+			int bestMove = count == 0 ? -1 : rootMoves[0];
+			int empties = game.getSize() * game.getSize() - game.getBlackCount() - game.getWhiteCount();
+			// helpers start in different places so they don't all search the same positions
+			if (id > 0 && count > 1) {
+				int first = id % count;
+				bestMove = rootMoves[first];
+				rootMoves[first] = rootMoves[0];
+				rootMoves[0] = bestMove;
+			}
+
+			for (int depth = 1 + id % 2; count > 1 && depth <= maxDepth && !outOfTime; depth++) {
+				int alpha = -INFINITY;
+				int iterationBest = -1;
+				for (int i = 0; i < count; i++) {
+					int move = rootMoves[i];
+					game.makeMove(move / game.getSize(), move % game.getSize());
+					int score = -negamax(depth - 1, 1, -INFINITY, -alpha);
+					game.unmakeMove();
+					if (outOfTime)
+						break;
+					if (score > alpha) {
+						alpha = score;
+						iterationBest = i;
+					}
+				}
+				if (outOfTime)
+					break;
+				// search the best move first next time round so cut offs come sooner
+				bestMove = rootMoves[iterationBest];
+				rootMoves[iterationBest] = rootMoves[0];
+				rootMoves[0] = bestMove;
+				depthReached = depth;
+				this.score = alpha;
+				// nothing deeper left to search once the search reaches the end of the game
+				if (depth >= empties)
+					break;
+			}
+			return bestMove;
+		}
+
+		private int negamax(int depth, int ply, int alpha, int beta) {
+			if (++nodes % CLOCK_INTERVAL == 0 && search.isOver())
+				outOfTime = true;
+			if (outOfTime)
+				return 0;
+			char player = game.getCurrentPlayerChar();
+			if (depth == 0 || ply == MAX_DEPTH)
+				return evaluate(player);
+
+			long hash = game.getHash();
+			long entry = table.probe(hash);
+			int hashMove = -1;
+			if (entry != 0) {
+				hashMove = TranspositionTable.getMove(entry);
+				if (TranspositionTable.getDepth(entry) >= depth) {
+					int score = TranspositionTable.getScore(entry);
+					int bound = TranspositionTable.getBound(entry);
+					if (bound == TranspositionTable.EXACT
+							|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+							|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+						return score;
+				}
+			}
+
+			int[] moves = moveList(ply);
+			int count = game.getValidMoves(player, moves);
+			if (count == 0) {
+				if (!game.testForValidTurn(opponent(player)))
+					return finalScore(player);
+				game.makePass();
+				int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+				game.unmakeMove();
+				return score;
+			}
+
+			// try the best move from an earlier search first
+			for (int i = 1; i < count && hashMove >= 0; i++) {
+				if (moves[i] == hashMove) {
+					moves[i] = moves[0];
+					moves[0] = hashMove;
+					break;
+				}
+			}
+
+			int originalAlpha = alpha;
+			int best = -INFINITY;
+			int bestMove = -1;
+			for (int i = 0; i < count; i++) {
+				game.makeMove(moves[i] / game.getSize(), moves[i] % game.getSize());
+				int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+				game.unmakeMove();
+				if (outOfTime)
+					return 0;
+				if (score > best) {
+					best = score;
+					bestMove = moves[i];
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta)
+							break;
+					}
+				}
+			}
+			int bound = TranspositionTable.EXACT;
+			if (best <= originalAlpha)
+				bound = TranspositionTable.UPPER_BOUND;
+			else if (best >= beta)
+				bound = TranspositionTable.LOWER_BOUND;
+			table.store(hash, bestMove, best, depth, bound);
+			return best;
+		}
+
+		/**
+		 * scores a position for player from corners held, mobility and pieces
+		 */
+		private int evaluate(char player) {
+			char opponent = opponent(player);
+			int last = game.getSize() - 1;
+			int corners = cornerScore(0, 0, player) + cornerScore(0, last, player)
+					+ cornerScore(last, 0, player) + cornerScore(last, last, player);
+			int mobility = game.countValidMoves(player) - game.countValidMoves(opponent);
+			return 25 * corners + 5 * mobility + pieceDifference(player);
+		}
+
+		private int cornerScore(int y, int x, char player) {
+			char piece = game.getBoardPiece(y, x);
+			if (piece == '-')
+				return 0;
+			return piece == player ? 1 : -1;
+		}
+
+		private int finalScore(char player) {
+			int difference = pieceDifference(player);
+			if (difference > 0)
+				return WIN + difference;
+			if (difference < 0)
+				return -WIN + difference;
+			return 0;
+		}
+
+		private int pieceDifference(char player) {
+			int difference = game.getBlackCount() - game.getWhiteCount();
+			return player == 'b' ? difference : -difference;
+		}
+
+		private int[] moveList(int ply) {
+			if (moveLists[ply] == null)
+				moveLists[ply] = new int[game.getSize() * game.getSize()];
+			return moveLists[ply];
+		}
+	}
+
+	private static char opponent(char player) {
+		return player == 'b' ? 'w' : 'b';
+	}
+
+	/**
+	 * gets the deepest search that finished during the last chooseMove
+	 * @return depth in plies
+	 */
+	public int getDepthReached() {
+		return depthReached;
+	}
+
+	/**
+	 * gets the score of the move chosen by the last chooseMove, from the search, the endgame solver
+	 * or the book
+	 * @return the score for the player who moved, 0 if there was only one move to make
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * gets the number of positions searched by every thread during the last chooseMove
+	 * @return positions searched
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * gets the speed of the last chooseMove
+	 * @return positions searched per second
+	 */
+	public long getNodesPerSecond() {
+		return elapsed == 0 ? 0 : nodes * 1_000_000_000L / elapsed;
+	}
+
+	/**
+	 * gets the time taken by the last chooseMove
+	 * @return time in nanoseconds
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * gets the time allowed to choose each move
+	 * @return time budget in milliseconds
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * gets the number of threads each search uses
+	 * @return thread count
+	 */
+	public int getThreads() {
+		return threads;
+	}
+}
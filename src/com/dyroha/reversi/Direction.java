@@ -10,33 +10,57 @@ public enum Direction {
 	/**
 	 * Up Left (North West) direction
 	 */
-	UPLEFT,
+	UPLEFT(-1, -1),
 	/**
 	 * Up (North) direction
 	 */
-	UP,
+	UP(-1, 0),
 	/**
 	 * Up Right (North East) direction
 	 */
-	UPRIGHT,
+	UPRIGHT(-1, 1),
 	/**
 	 * Left (West) direction
 	 */
-	LEFT,
+	LEFT(0, -1),
 	/**
 	 * Right (East) direction
 	 */
-	RIGHT,
+	RIGHT(0, 1),
 	/**
 	 * Down Left (South West) direction
 	 */
-	DOWNLEFT,
+	DOWNLEFT(1, -1),
 	/**
 	 * Down (South) direction
 	 */
-	DOWN,
+	DOWN(1, 0),
 	/**
 	 * Down Right (South East) direction
 	 */
-	DOWNRIGHT
+	DOWNRIGHT(1, 1);
+
+	private final int dy;
+	private final int dx;
+
+	private Direction(int dy, int dx) {
+		this.dy = dy;
+		this.dx = dx;
+	}
+
+	/**
+	 * gets the change in row when moving one space in this direction
+	 * @return -1, 0 or 1
+	 */
+	public int getDy() {
+		return dy;
+	}
+
+	/**
+	 * gets the change in collumn when moving one space in this direction
+	 * @return -1, 0 or 1
+	 */
+	public int getDx() {
+		return dx;
+	}
 }
@@ -0,0 +1,59 @@
+package com.dyroha.reversi;
+
+import java.util.Random;
+
+/**
+ * Times the EndgameSolver on a fixed set of 8x8 positions with 20 to 24 empty spaces, made by
+ * seeded random play so every run solves the same positions
+ * <p>
+ * Usage: EndgameBenchmark [positions per empties count]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class EndgameBenchmark {
+	private static final long SEED = 20210423L;
+	private static final int MIN_EMPTIES = 20;
+	private static final int MAX_EMPTIES = 24;
+
+	// private constructor to hide the public super one
+	private EndgameBenchmark() {}
+
+	public static void main(String[] args) {
+		int perEmpties = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+		Random random = new Random(SEED);
+		EndgameSolver solver = new EndgameSolver();
+
+		System.out.println("empties\tposition\tmove\tscore\tnodes\ttime (ms)\tpositions/s");
+		for (int empties = MIN_EMPTIES; empties <= MAX_EMPTIES; empties++) {
+			for (int i = 0; i < perEmpties; i++) {
+				ReversiGame game = createPosition(random, empties);
+				long start = System.nanoTime();
+				EndgameSolver.Solution solution = solver.solve(game);
+				long time = Math.max(1, System.nanoTime() - start);
+				System.out.printf("%d\t%s\t%d\t%+d\t%d\t%d\t%d%n", empties, game, solution.getMove(),
+						solution.getScore(), solution.getNodes(), time / 1_000_000,
+						solution.getNodes() * 1_000_000_000L / time);
+			}
+		}
+	}
+
+	// plays random moves until the board has the given number of empty spaces
+	private static ReversiGame createPosition(Random random, int empties) {
+		int[] moves = new int[64];
+		while (true) {
+			ReversiGame game = new ReversiGame(8);
+			while (!game.isGameOver() && 64 - game.getBlackCount() - game.getWhiteCount() > empties) {
+				int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+				if (count == 0) {
+					game.nextTurn();
+				} else {
+					int move = moves[random.nextInt(count)];
+					game.placePiece(move / 8, move % 8);
+				}
+			}
+			if (!game.isGameOver() && game.testForValidTurn(game.getCurrentPlayerChar()))
+				return new ReversiGame(game);
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package com.dyroha.reversi;
+
+import java.util.Arrays;
+
+/**
+ * Solves the end of an 8x8 game exactly, finding the move with the best final piece difference
+ * for the player to move. The search works straight on BitBoard's longs rather than a
+ * ReversiGame: moves near the root are ordered fastest first (fewest replies for the opponent),
+ * deeper moves by parity (empty spaces in quadrants with an odd number of empties first), the last
+ * four empties are tried without generating moves and the very last one is scored directly.
+ * Positions near the root keep their score bounds and best move in a small hash table, and every
+ * move after the first is tried with a null window first (principal variation search)
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class EndgameSolver {
+	/**
+	 * the number of empty spaces at or below which a ComputerPlayer uses a solver by default
+	 */
+	public static final int DEFAULT_EMPTIES = 14;
+
+	// above this many empties moves are ordered fastest first, otherwise by parity
+	private static final int FASTEST_FIRST_EMPTIES = 5;
+	// positions with at least this many empties go in the hash table
+	private static final int HASH_EMPTIES = 8;
+	private static final int HASH_BITS = 18;
+	private static final long[] QUADRANTS = { 0x000000000f0f0f0fL, 0x00000000f0f0f0f0L,
+			0x0f0f0f0f00000000L, 0xf0f0f0f000000000L };
+
+	private final int[][] moveLists = new int[65][32];
+	private final int[][] moveKeys = new int[65][32];
+	// the hash table, position (own and opp) and packed bounds: lower + 64, upper + 64, best move
+	private final long[] hashOwn = new long[1 << HASH_BITS];
+	private final long[] hashOpp = new long[1 << HASH_BITS];
+	private final int[] hashBounds = new int[1 << HASH_BITS];
+	private long nodes;
+
+	/**
+	 * The result of solving a position
+	 */
+	public static class Solution {
+		private final int move;
+		private final int score;
+		private final long nodes;
+
+		private Solution(int move, int score, long nodes) {
+			this.move = move;
+			this.score = score;
+			this.nodes = nodes;
+		}
+
+		/**
+		 * gets the best move
+		 * @return the space as (y * 8 + x), -1 if the player has to pass
+		 */
+		public int getMove() {
+			return move;
+		}
+
+		/**
+		 * gets the final piece difference with perfect play from both sides
+		 * @return the player to move's pieces minus their opponent's at the end of the game
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * gets the number of positions searched to solve it
+		 * @return positions searched
+		 */
+		public long getNodes() {
+			return nodes;
+		}
+	}
+
+	/**
+	 * solves a game, which is left unchanged
+	 * @param game an 8x8 game
+	 * @return the best move and exact final score
+	 * @throws IllegalArgumentException if the game is not 8x8
+	 */
+	public Solution solve(ReversiGame game) {
+		if (game.getSize() != BitBoard.SIZE)
+			throw new IllegalArgumentException("Only 8x8 games can be solved, not " + game.getSize());
+		long black = 0;
+		long white = 0;
+		for (int y = 0; y < BitBoard.SIZE; y++) {
+			for (int x = 0; x < BitBoard.SIZE; x++) {
+				char piece = game.getBoardPiece(y, x);
+				if (piece == 'b')
+					black |= 1L << (y * BitBoard.SIZE + x);
+				else if (piece == 'w')
+					white |= 1L << (y * BitBoard.SIZE + x);
+			}
+		}
+		long own = game.getCurrentPlayerChar() == 'b' ? black : white;
+		long opp = game.getCurrentPlayerChar() == 'b' ? white : black;
+		nodes = 1;
+
+		long moves = BitBoard.validMoves(own, opp);
+		if (moves == 0)
+			return new Solution(-1, search(own, opp, -64, 64, false), nodes);
+		int bestMove = -1;
+		int alpha = -65;
+		int[] list = moveLists[64];
+		int count = orderMoves(own, opp, moves, ~(own | opp), 64, -1);
+		for (int i = 0; i < count; i++) {
+			long move = 1L << list[i];
+			long flips = BitBoard.flips(move, own, opp);
+			long nextOwn = opp & ~flips;
+			long nextOpp = own | flips | move;
+			int score;
+			if (i == 0) {
+				score = -search(nextOwn, nextOpp, -64, 64, false);
+			} else {
+				score = -search(nextOwn, nextOpp, -alpha - 1, -alpha, false);
+				if (score > alpha)
+					score = -search(nextOwn, nextOpp, -64, -score, false);
+			}
+			if (score > alpha) {
+				alpha = score;
+				bestMove = list[i];
+			}
+		}
+		return new Solution(bestMove, alpha, nodes);
+	}
+
+	/**
+	 * empties the hash table, so a solver can be reused for another game without remembering the
+	 * last one
+	 */
+	public void clear() {
+		Arrays.fill(hashOwn, 0);
+		Arrays.fill(hashOpp, 0);
+		Arrays.fill(hashBounds, 0);
+	}
+
+	private int search(long own, long opp, int alpha, int beta, boolean passed) {
+		nodes++;
+		long empty = ~(own | opp);
+		int empties = Long.bitCount(empty);
+		if (empties == 1)
+			return lastMove(own, opp, Long.numberOfTrailingZeros(empty));
+		if (empties <= 4)
+			return searchShallow(own, opp, empty, alpha, beta, passed);
+
+		long moves = BitBoard.validMoves(own, opp);
+		if (moves == 0) {
+			if (passed)
+				return Long.bitCount(own) - Long.bitCount(opp);
+			return -search(opp, own, -beta, -alpha, true);
+		}
+
+		int slot = -1;
+		int hashMove = -1;
+		if (empties >= HASH_EMPTIES) {
+			slot = slot(own, opp);
+			if (hashOwn[slot] == own && hashOpp[slot] == opp && hashBounds[slot] != 0) {
+				int lower = (hashBounds[slot] & 0xff) - 64;
+				int upper = (hashBounds[slot] >>> 8 & 0xff) - 64;
+				if (lower >= beta)
+					return lower;
+				if (upper <= alpha || lower == upper)
+					return upper;
+				hashMove = hashBounds[slot] >>> 16;
+			}
+		}
+
+		int[] list = moveLists[empties];
+		int count = orderMoves(own, opp, moves, empty, empties, hashMove);
+		int originalAlpha = alpha;
+		int best = -65;
+		int bestMove = list[0];
+		for (int i = 0; i < count; i++) {
+			long move = 1L << list[i];
+			long flips = BitBoard.flips(move, own, opp);
+			long nextOwn = opp & ~flips;
+			long nextOpp = own | flips | move;
+			int score;
+			if (i == 0) {
+				score = -search(nextOwn, nextOpp, -beta, -alpha, false);
+			} else {
+				// prove the move is no better than the best so far with a null window first
+				score = -search(nextOwn, nextOpp, -alpha - 1, -alpha, false);
+				if (score > alpha && score < beta)
+					score = -search(nextOwn, nextOpp, -beta, -score, false);
+			}
+			if (score > best) {
+				best = score;
+				bestMove = list[i];
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta)
+						break;
+				}
+			}
+		}
+
+		if (slot >= 0) {
+			int lower = best >= beta ? best : -64;
+			int upper = best <= originalAlpha ? best : 64;
+			if (best > originalAlpha && best < beta)
+				lower = upper = best;
+			hashOwn[slot] = own;
+			hashOpp[slot] = opp;
+			hashBounds[slot] = (lower + 64) | (upper + 64) << 8 | bestMove << 16;
+		}
+		return best;
+	}
+
+	private static int slot(long own, long opp) {
+		long h = own * 0x9e3779b97f4a7c15L ^ Long.rotateLeft(opp * 0xc2b2ae3d27d4eb4fL, 31);
+		return (int) (h >>> (64 - HASH_BITS));
+	}
+
+	/**
+	 * searches with 2 to 4 empties, trying each empty space in parity order instead of generating
+	 * the moves first
+	 */
+	private int searchShallow(long own, long opp, long empty, int alpha, int beta, boolean passed) {
+		long odd = oddQuadrants(empty);
+		int best = -65;
+		boolean moved = false;
+		for (int pass = 0; pass < 2; pass++) {
+			long squares = pass == 0 ? empty & odd : empty & ~odd;
+			for (; squares != 0; squares &= squares - 1) {
+				long move = squares & -squares;
+				long flips = BitBoard.flips(move, own, opp);
+				if (flips == 0)
+					continue;
+				moved = true;
+				int score = -search(opp & ~flips, own | flips | move, -beta, -alpha, false);
+				if (score > best) {
+					best = score;
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta)
+							return best;
+					}
+				}
+			}
+		}
+		if (moved)
+			return best;
+		if (passed)
+			return Long.bitCount(own) - Long.bitCount(opp);
+		return -search(opp, own, -beta, -alpha, true);
+	}
+
+	/**
+	 * scores the last empty space directly, whoever can go there does, otherwise the game ends
+	 */
+	private int lastMove(long own, long opp, int space) {
+		nodes++;
+		long move = 1L << space;
+		int score = Long.bitCount(own) - Long.bitCount(opp);
+		long flips = BitBoard.flips(move, own, opp);
+		if (flips != 0)
+			return score + 2 * Long.bitCount(flips) + 1;
+		flips = BitBoard.flips(move, opp, own);
+		if (flips != 0)
+			return score - 2 * Long.bitCount(flips) - 1;
+		return score;
+	}
+
+	/**
+	 * fills the move list for this many empties in the order to search them, the hash move first
+	 * @return the number of moves
+	 */
+	private int orderMoves(long own, long opp, long moves, long empty, int empties, int hashMove) {
+		int[] list = moveLists[empties];
+		int[] keys = moveKeys[empties];
+		long odd = oddQuadrants(empty);
+		int count = 0;
+		for (; moves != 0; moves &= moves - 1) {
+			int space = Long.numberOfTrailingZeros(moves);
+			long move = 1L << space;
+			int key;
+			if (space == hashMove) {
+				key = -1;
+			} else if (empties > FASTEST_FIRST_EMPTIES) {
+				// fastest first, the fewer replies the opponent has the sooner it is searched
+				long flips = BitBoard.flips(move, own, opp);
+				key = Long.bitCount(BitBoard.validMoves(opp & ~flips, own | flips | move));
+			} else {
+				key = (odd & move) != 0 ? 0 : 1;
+			}
+			// insertion sort, lists are short
+			int i = count++;
+			while (i > 0 && keys[i - 1] > key) {
+				list[i] = list[i - 1];
+				keys[i] = keys[i - 1];
+				i--;
+			}
+			list[i] = space;
+			keys[i] = key;
+		}
+		return count;
+	}
+
+	private static long oddQuadrants(long empty) {
+		long odd = 0;
+		for (long quadrant : QUADRANTS) {
+			if ((Long.bitCount(empty & quadrant) & 1) != 0)
+				odd |= quadrant;
+		}
+		return odd;
+	}
+}
@@ -0,0 +1,365 @@
+package com.dyroha.reversi;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Reads and writes archives of many games, a game at a time so an archive of any size can be
+ * read or written in the same small amount of memory. Every game read is replayed through a
+ * ReversiGame and games with an invalid move are counted and skipped.
+ * <p>
+ * Two formats are understood. WTHOR archives (.wtb) hold 8x8 games: a 16 byte header with the
+ * number of games, then 68 bytes per game, the tournament, black and white player numbers as
+ * little endian shorts, black's real and theoretical scores, then 60 moves as (10 * row +
+ * collumn) counting from 1, 0 after the last. Anything else is a move list: one game per line
+ * written as runs of moves such as "f5d6c3d3", with lines starting with # skipped. Neither format
+ * writes passes, they are made whenever a player can't move
+ * <p>
+ * Usage: GameArchive check [archive] [size]
+ * <br>
+ * GameArchive convert [from archive] [to archive] [size]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public final class GameArchive {
+	/**
+	 * the file extension of WTHOR archives
+	 */
+	public static final String WTHOR_EXTENSION = ".wtb";
+
+	private static final int WTHOR_SIZE = 8;
+	private static final int WTHOR_HEADER_BYTES = 16;
+	private static final int WTHOR_RECORD_BYTES = 68;
+	private static final int WTHOR_MOVES = 60;
+	// records read or written at a time
+	private static final int BUFFER_RECORDS = 1024;
+
+	// private constructor to hide the public super one
+	private GameArchive() {}
+
+	/**
+	 * Something given each valid game as it is read
+	 */
+	public interface Handler {
+		/**
+		 * takes the next game from the archive
+		 * @param game the game
+		 * @throws IOException if the game can't be handled, which stops the reading
+		 */
+		void game(ArchivedGame game) throws IOException;
+	}
+
+	/**
+	 * Something games can be written to, the archive is complete once it is closed
+	 */
+	public interface Writer extends Closeable {
+		/**
+		 * appends a game to the archive
+		 * @param game the game
+		 * @throws IOException if the game can't be written
+		 */
+		void write(ArchivedGame game) throws IOException;
+	}
+
+	/**
+	 * The number of games read from an archive
+	 */
+	public static class Counts {
+		private long games;
+		private long invalid;
+
+		/**
+		 * gets the number of valid games, each was given to the handler
+		 * @return games read
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * gets the number of games skipped for an invalid or unreadable move
+		 * @return games skipped
+		 */
+		public long getInvalid() {
+			return invalid;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || (args[0].equals("convert") && args.length < 3)) {
+			System.err.println("Usage: GameArchive check [archive] [size]");
+			System.err.println("       GameArchive convert [from archive] [to archive] [size]");
+			System.exit(1);
+		}
+		long start = System.nanoTime();
+		Counts counts;
+		if (args[0].equals("check")) {
+			int size = args.length > 2 ? Integer.parseInt(args[2]) : WTHOR_SIZE;
+			counts = read(Paths.get(args[1]), size, game -> {});
+		} else if (args[0].equals("convert")) {
+			int size = args.length > 3 ? Integer.parseInt(args[3]) : WTHOR_SIZE;
+			try (Writer writer = openWriter(Paths.get(args[2]), size)) {
+				counts = read(Paths.get(args[1]), size, writer::write);
+			}
+		} else {
+			System.err.println("Unknown mode: " + args[0]);
+			System.exit(1);
+			return;
+		}
+		System.out.printf("%d games, %d invalid, %d ms%n", counts.getGames(), counts.getInvalid(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * reads every game in an archive, WTHOR if its name ends in .wtb otherwise a move list
+	 * @param file the archive
+	 * @param size the size of the board for move lists, WTHOR games are always 8x8
+	 * @param handler given each valid game in order
+	 * @return the number of games read and skipped
+	 * @throws IOException if the archive can't be read, or the handler throws it
+	 */
+	public static Counts read(Path file, int size, Handler handler) throws IOException {
+		if (isWthor(file))
+			return readWthor(file, handler);
+		return readMoveLists(file, size, handler);
+	}
+
+	/**
+	 * opens a new archive for writing, WTHOR if its name ends in .wtb otherwise a move list
+	 * @param file the archive, replaced if it exists
+	 * @param size the size of the board, WTHOR archives can only hold 8x8 games
+	 * @return the writer, which must be closed to finish the archive
+	 * @throws IOException if the archive can't be created
+	 * @throws IllegalArgumentException if a WTHOR archive is asked for a size other than 8
+	 */
+	public static Writer openWriter(Path file, int size) throws IOException {
+		if (!isWthor(file))
+			return new MoveListWriter(file);
+		if (size != WTHOR_SIZE)
+			throw new IllegalArgumentException("WTHOR archives only hold 8x8 games, not " + size);
+		return new WthorWriter(file);
+	}
+
+	private static boolean isWthor(Path file) {
+		return file.getFileName().toString().toLowerCase().endsWith(WTHOR_EXTENSION);
+	}
+
+	/**
+	 * reads every game in a WTHOR archive, a buffer of records at a time
+	 * @param file the archive
+	 * @param handler given each valid game in order
+	 * @return the number of games read and skipped
+	 * @throws IOException if the archive can't be read or isn't an 8x8 WTHOR archive, or the
+	 * handler throws it
+	 */
+	public static Counts readWthor(Path file, Handler handler) throws IOException {
+		Counts counts = new Counts();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * WTHOR_RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.limit(WTHOR_HEADER_BYTES);
+			if (!fill(channel, buffer))
+				throw new IOException("Not a WTHOR archive: " + file);
+			// 0 is the old way of writing 8, 10x10 archives have longer records
+			int boardSize = buffer.get(12);
+			if (boardSize != 0 && boardSize != WTHOR_SIZE)
+				throw new IOException("Unsupported WTHOR board size " + boardSize);
+
+			int[] moves = new int[WTHOR_MOVES];
+			buffer.clear();
+			boolean more = true;
+			while (more) {
+				more = fill(channel, buffer);
+				buffer.flip();
+				while (buffer.remaining() >= WTHOR_RECORD_BYTES) {
+					int tournament = buffer.getShort() & 0xffff;
+					int blackPlayer = buffer.getShort() & 0xffff;
+					int whitePlayer = buffer.getShort() & 0xffff;
+					// the scores are worked out again by replaying the moves
+					buffer.getShort();
+					int count = 0;
+					boolean readable = true;
+					for (int i = 0; i < WTHOR_MOVES; i++) {
+						int move = buffer.get();
+						if (move == 0 || !readable)
+							continue;
+						int y = move / 10 - 1;
+						int x = move % 10 - 1;
+						if (count < i || y < 0 || y >= WTHOR_SIZE || x < 0 || x >= WTHOR_SIZE)
+							readable = false;
+						else
+							moves[count++] = y * WTHOR_SIZE + x;
+					}
+					ArchivedGame game = readable ? ArchivedGame.replay(WTHOR_SIZE, tournament, blackPlayer, whitePlayer,
+							moves, count) : null;
+					add(counts, game, handler);
+				}
+				buffer.compact();
+			}
+			// a record cut short at the end of the file
+			if (buffer.position() > 0)
+				counts.invalid++;
+		}
+		return counts;
+	}
+
+	/**
+	 * reads every game in a move list, a line at a time
+	 * @param file the archive
+	 * @param size the size of the board
+	 * @param handler given each valid game in order
+	 * @return the number of games read and skipped
+	 * @throws IOException if the archive can't be read, or the handler throws it
+	 */
+	public static Counts readMoveLists(Path file, int size, Handler handler) throws IOException {
+		Counts counts = new Counts();
+		int[] moves = new int[size * size];
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				ArchivedGame game;
+				try {
+					game = ArchivedGame.replay(size, 0, 0, 0, moves, MoveNotation.parseMoves(line, size, moves));
+				} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+					// not a move, or more moves than the board has spaces
+					game = null;
+				}
+				add(counts, game, handler);
+			}
+		}
+		return counts;
+	}
+
+	private static void add(Counts counts, ArchivedGame game, Handler handler) throws IOException {
+		if (game == null) {
+			counts.invalid++;
+		} else {
+			counts.games++;
+			handler.game(game);
+		}
+	}
+
+	// reads until the buffer is full, false if the file ended first
+	private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a WTHOR archive, the number of games in the header is filled in on close
+	 */
+	private static class WthorWriter implements Writer {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * WTHOR_RECORD_BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		private int games;
+
+		private WthorWriter(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			buffer.put(header());
+		}
+
+		@Override
+		public void write(ArchivedGame game) throws IOException {
+			ReversiGame end = game.getGame();
+			if (end.getSize() != WTHOR_SIZE)
+				throw new IllegalArgumentException("WTHOR archives only hold 8x8 games, not " + end.getSize());
+			if (buffer.remaining() < WTHOR_RECORD_BYTES)
+				flush();
+			// the real score gives the empty spaces to the winner
+			int black = end.getBlackCount();
+			int white = end.getWhiteCount();
+			int empty = WTHOR_SIZE * WTHOR_SIZE - black - white;
+			int score = black > white ? black + empty : black == white ? black + empty / 2 : black;
+			buffer.putShort((short) game.getTournament()).putShort((short) game.getBlackPlayer())
+					.putShort((short) game.getWhitePlayer());
+			// nothing here works out the theoretical score, so it is written as the real one
+			buffer.put((byte) score).put((byte) score);
+			for (int i = 0; i < WTHOR_MOVES; i++) {
+				int move = i < game.getMoveCount() ? game.getMove(i) : -1;
+				buffer.put((byte) (move < 0 ? 0 : 10 * (move / WTHOR_SIZE + 1) + move % WTHOR_SIZE + 1));
+			}
+			games++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+				ByteBuffer header = header();
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+			} finally {
+				channel.close();
+			}
+		}
+
+		private ByteBuffer header() {
+			LocalDate today = LocalDate.now();
+			ByteBuffer header = ByteBuffer.allocate(WTHOR_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.put((byte) (today.getYear() / 100)).put((byte) (today.getYear() % 100))
+					.put((byte) today.getMonthValue()).put((byte) today.getDayOfMonth());
+			// games, then the record count only used by player and tournament files
+			header.putInt(games).putShort((short) 0).putShort((short) today.getYear());
+			// board size, not solitaire, and no depth for the theoretical scores
+			header.put((byte) WTHOR_SIZE).put((byte) 0).put((byte) 0).put((byte) 0);
+			header.flip();
+			return header;
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Writes a move list, one game per line
+	 */
+	private static class MoveListWriter implements Writer {
+		private final BufferedWriter writer;
+		private final StringBuilder line = new StringBuilder();
+
+		private MoveListWriter(Path file) throws IOException {
+			writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void write(ArchivedGame game) throws IOException {
+			int size = game.getGame().getSize();
+			line.setLength(0);
+			for (int i = 0; i < game.getMoveCount(); i++) {
+				line.append(MoveNotation.toText(game.getMove(i), size));
+			}
+			writer.write(line.toString());
+			writer.newLine();
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package com.dyroha.reversi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games at once against a GameServer to see how it copes. Every game is two clients,
+ * each on its own virtual thread with its own connection, making random moves as soon as it is
+ * their turn. A client keeps its own copy of the game from the moves the server sends, and times
+ * each of its moves from sending it to the server sending it back. Without a host a server is
+ * started in this program on a free port.
+ * <p>
+ * Each connection is a file on both ends, so the games played at once are limited by the files a
+ * process may open, twice over if the server is in the same program.
+ * <p>
+ * Usage: GameLoadTest [games] [size] [host] [port]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class GameLoadTest {
+	// connections made at once, so the server's backlog of connections to accept doesn't overflow
+	private static final int CONNECTING = 256;
+	private static final long SEED = 20210429L;
+
+	private final InetSocketAddress address;
+	private final int size;
+	private final Semaphore connecting = new Semaphore(CONNECTING);
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final AtomicLong moves = new AtomicLong();
+	private final AtomicInteger finished = new AtomicInteger();
+	private final AtomicInteger abandoned = new AtomicInteger();
+	private final AtomicInteger errors = new AtomicInteger();
+
+	/**
+	 * Creates a GameLoadTest
+	 * @param address the server's address
+	 * @param size the size of board to play on
+	 */
+	public GameLoadTest(InetSocketAddress address, int size) {
+		this.address = address;
+		this.size = size;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		GameServer server = null;
+		InetSocketAddress address;
+		if (args.length > 2) {
+			address = new InetSocketAddress(args[2], args.length > 3 ? Integer.parseInt(args[3]) : GameServer.DEFAULT_PORT);
+		} else {
+			server = new GameServer(new InetSocketAddress("localhost", 0));
+			Thread serverThread = new Thread(server, "reversi server");
+			serverThread.setDaemon(true);
+			serverThread.start();
+			address = new InetSocketAddress("localhost", server.getPort());
+		}
+
+		GameLoadTest test = new GameLoadTest(address, size);
+		long start = System.nanoTime();
+		test.run(games);
+		long elapsed = System.nanoTime() - start;
+		test.printSummary(games, elapsed);
+		if (server != null)
+			server.close();
+	}
+
+	/**
+	 * plays the games, returning once every client has finished
+	 * @param games the number of games to play at once
+	 * @throws InterruptedException if interrupted while waiting for the games
+	 */
+	public void run(int games) throws InterruptedException {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 2 * games; i++) {
+				long seed = SEED ^ i * 0x9e3779b97f4a7c15L;
+				executor.submit(() -> playClient(seed));
+			}
+		}
+	}
+
+	private void playClient(long seed) {
+		try (SocketChannel channel = connect()) {
+			ByteBuffer out = ByteBuffer.allocate(16);
+			ByteBuffer in = ByteBuffer.allocate(256).flip();
+			GameProtocol.putJoin(out, size);
+			send(channel, out);
+
+			if (receive(channel, in) != GameProtocol.START)
+				throw new IOException("Expected the game to start");
+			char player = (char) in.get();
+			ReversiGame game = new ReversiGame(in.getShort() & 0xffff);
+			// the game's number, only needed to watch it
+			in.getInt();
+			RandomPlayer random = new RandomPlayer(seed);
+			long sent = 0;
+			while (true) {
+				if (sent == 0 && game.getCurrentPlayerChar() == player) {
+					GameProtocol.putMove(out, random.chooseMove(game));
+					sent = System.nanoTime();
+					send(channel, out);
+				}
+				byte type = receive(channel, in);
+				if (type == GameProtocol.MOVED) {
+					int space = in.getInt();
+					char next = (char) in.get();
+					if (sent != 0) {
+						latency.record(System.nanoTime() - sent);
+						moves.incrementAndGet();
+						sent = 0;
+					}
+					if (!game.makeMove(space / game.getSize(), space % game.getSize()))
+						throw new IOException("Server made an invalid move " + space);
+					if (next != 0 && next != game.getCurrentPlayerChar())
+						game.nextTurn();
+				} else if (type == GameProtocol.GAME_OVER) {
+					if (in.get() == GameProtocol.FINISHED)
+						finished.incrementAndGet();
+					else
+						abandoned.incrementAndGet();
+					in.position(in.position() + 8);
+					return;
+				} else {
+					throw new IOException("Unexpected message " + type);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			errors.incrementAndGet();
+		}
+	}
+
+	private SocketChannel connect() throws IOException {
+		connecting.acquireUninterruptibly();
+		try {
+			SocketChannel channel = SocketChannel.open(address);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			return channel;
+		} finally {
+			connecting.release();
+		}
+	}
+
+	private static void send(SocketChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	// reads until the buffer holds a whole message, leaving it just past the type byte
+	private static byte receive(SocketChannel channel, ByteBuffer in) throws IOException {
+		byte type;
+		while ((type = GameProtocol.nextMessage(in)) == 0) {
+			in.compact();
+			int read = channel.read(in);
+			in.flip();
+			if (read < 0)
+				throw new EOFException();
+		}
+		in.get();
+		return type;
+	}
+
+	private void printSummary(int games, long elapsed) {
+		System.out.printf("%d games on %dx%d boards in %.1f s, %d finished, %d abandoned, %d client errors%n", games,
+				size, size, elapsed / 1e9, finished.get() / 2, abandoned.get(), errors.get());
+		System.out.printf("%d moves, %.0f moves/s%n", moves.get(), moves.get() * 1e9 / elapsed);
+		System.out.printf("move round trip p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+				latency.getPercentile(50) / 1e3, latency.getPercentile(90) / 1e3, latency.getPercentile(99) / 1e3,
+				latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3);
+	}
+}
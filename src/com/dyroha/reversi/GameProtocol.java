@@ -0,0 +1,220 @@
+package com.dyroha.reversi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The messages a GameServer and its clients send each other. Most messages are a type byte
+ * followed by a fixed number of big-endian bytes for that type, so they need no length and a move
+ * takes five bytes. The rest, marked variable, have an i32 length of the bytes after it following
+ * the type. Spaces are (y * size + x) and players are the bytes 'b' and 'w'.
+ * <p>
+ * From a client:
+ * <br>JOIN size (u16): asks to be put in a game on a board of that size
+ * <br>MOVE space (i32): makes a move, only on the client's turn
+ * <br>LEAVE: gives up the game, or stops waiting for one or watching one
+ * <br>WATCH game (i32): watches a game being played
+ * <p>
+ * From the server:
+ * <br>START player (u8) size (u16) game (i32): a game has started and the client plays for player
+ * <br>MOVED space (i32) next (u8): a move was made, sent to both players, next is the player to
+ * move after it (the same player again if the other has to pass) or 0 when the game is over
+ * <br>INVALID space (i32): the client's move was not made
+ * <br>GAME_OVER reason (u8) black (i32) white (i32): the game has ended with that many pieces each
+ * <br>SNAPSHOT, variable, game (i32) board (ASCII): the whole game being watched as
+ * ReversiGame.toString writes it, sent when a client starts watching and in place of the moves a
+ * client was too slow to be sent
+ * <br>DELTA, variable, game (i32) space (i32) next (u8) flips: a move in the game being watched,
+ * next as in MOVED and then each space it flipped as a varint of the zigzag encoded difference
+ * from space, so most take a byte
+ * <br>NO_GAME game (i32): the game asked to be watched isn't being played
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class GameProtocol {
+	static final byte JOIN = 1;
+	static final byte MOVE = 2;
+	static final byte LEAVE = 3;
+	static final byte WATCH = 4;
+	static final byte START = 16;
+	static final byte MOVED = 17;
+	static final byte INVALID = 18;
+	static final byte GAME_OVER = 19;
+	static final byte SNAPSHOT = 20;
+	static final byte DELTA = 21;
+	static final byte NO_GAME = 22;
+
+	/**
+	 * the payload length of a message with an i32 length after its type
+	 */
+	static final int VARIABLE = -2;
+
+	/**
+	 * a GAME_OVER reason, neither player could move
+	 */
+	static final byte FINISHED = 0;
+	/**
+	 * a GAME_OVER reason, the other player left or was disconnected
+	 */
+	static final byte ABANDONED = 1;
+
+	/**
+	 * the largest board a game can be played on
+	 */
+	static final int MAX_SIZE = 256;
+
+	// private constructor to hide the public super one
+	private GameProtocol() {}
+
+	/**
+	 * gets the number of bytes after the type byte for a type of message
+	 * @param type the type
+	 * @return the number of bytes, VARIABLE if they follow the type, -1 if it is not a type of message
+	 */
+	static int payloadLength(byte type) {
+		switch (type) {
+		case JOIN:
+			return 2;
+		case MOVE:
+		case WATCH:
+		case INVALID:
+		case NO_GAME:
+			return 4;
+		case LEAVE:
+			return 0;
+		case START:
+			return 7;
+		case SNAPSHOT:
+		case DELTA:
+			return VARIABLE;
+		case MOVED:
+			return 5;
+		case GAME_OVER:
+			return 9;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * checks if a type of message is one a client sends
+	 * @param type the type
+	 * @return true if it is JOIN, MOVE, LEAVE or WATCH
+	 */
+	static boolean isFromClient(byte type) {
+		return type >= JOIN && type <= WATCH;
+	}
+
+	/**
+	 * checks if a buffer being read from holds a whole message
+	 * @param in the buffer, ready to be read from
+	 * @return the type of the message, 0 if it doesn't hold a whole one yet
+	 * @throws IllegalArgumentException if the next message has an unknown type or a length that
+	 * won't fit in the buffer
+	 */
+	static byte nextMessage(ByteBuffer in) {
+		if (!in.hasRemaining())
+			return 0;
+		byte type = in.get(in.position());
+		int length = payloadLength(type);
+		if (length == VARIABLE) {
+			if (in.remaining() < 5)
+				return 0;
+			length = in.getInt(in.position() + 1);
+			// the buffer could never hold the whole message, so waiting for the rest would wait forever
+			if (length < 0 || length > in.capacity() - 5)
+				throw new IllegalArgumentException("Invalid message length " + length);
+			length += 4;
+		} else if (length < 0) {
+			throw new IllegalArgumentException("Unknown message type " + type);
+		}
+		return in.remaining() > length ? type : 0;
+	}
+
+	/**
+	 * checks if a board size can be played on
+	 * @param size the size
+	 * @return true if it is even and from 4 to MAX_SIZE
+	 */
+	static boolean isValidSize(int size) {
+		return size >= 4 && size <= MAX_SIZE && size % 2 == 0;
+	}
+
+	// each writes a message, the buffer must have room for it
+	static void putJoin(ByteBuffer out, int size) {
+		out.put(JOIN).putShort((short) size);
+	}
+
+	static void putMove(ByteBuffer out, int space) {
+		out.put(MOVE).putInt(space);
+	}
+
+	static void putLeave(ByteBuffer out) {
+		out.put(LEAVE);
+	}
+
+	static void putWatch(ByteBuffer out, int game) {
+		out.put(WATCH).putInt(game);
+	}
+
+	static void putStart(ByteBuffer out, char player, int size, int game) {
+		out.put(START).put((byte) player).putShort((short) size).putInt(game);
+	}
+
+	static void putMoved(ByteBuffer out, int space, char next) {
+		out.put(MOVED).putInt(space).put((byte) next);
+	}
+
+	static void putInvalid(ByteBuffer out, int space) {
+		out.put(INVALID).putInt(space);
+	}
+
+	static void putGameOver(ByteBuffer out, byte reason, int black, int white) {
+		out.put(GAME_OVER).put(reason).putInt(black).putInt(white);
+	}
+
+	static void putNoGame(ByteBuffer out, int game) {
+		out.put(NO_GAME).putInt(game);
+	}
+
+	/**
+	 * writes a SNAPSHOT of a game into a new buffer
+	 * @param number the game's number
+	 * @param game the game
+	 * @return the message, ready to be written
+	 */
+	static ByteBuffer snapshot(int number, ReversiGame game) {
+		byte[] board = game.toString().getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer out = ByteBuffer.allocate(9 + board.length);
+		out.put(SNAPSHOT).putInt(4 + board.length).putInt(number).put(board);
+		return out.flip();
+	}
+
+	/**
+	 * writes a DELTA for a move into a new buffer
+	 * @param number the game's number
+	 * @param spaces the space the piece was placed on then the spaces it flipped, as a
+	 * ReversiGame.ChangeListener is told them
+	 * @param next the player to move next, 0 if the game is over
+	 * @return the message, ready to be written
+	 */
+	static ByteBuffer delta(int number, int[] spaces, char next) {
+		ByteBuffer out = ByteBuffer.allocate(14 + 5 * (spaces.length - 1));
+		out.put(DELTA).putInt(0).putInt(number).putInt(spaces[0]).put((byte) next);
+		for (int i = 1; i < spaces.length; i++) {
+			int difference = spaces[i] - spaces[0];
+			putVarint(out, difference << 1 ^ difference >> 31);
+		}
+		out.putInt(1, out.position() - 5);
+		return out.flip();
+	}
+
+	private static void putVarint(ByteBuffer out, int value) {
+		while ((value & ~0x7f) != 0) {
+			out.put((byte) (value & 0x7f | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+}
@@ -0,0 +1,531 @@
+package com.dyroha.reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts games of Reversi between remote players, speaking the GameProtocol. Players ask to join a
+ * game of a board size and are paired with the next player asking for the same size, the first of
+ * the two playing black. The server keeps the ReversiGame for every game and checks each move in
+ * it, so a client can't make a move that isn't valid or move out of turn, and it passes for a
+ * player with no valid moves.
+ * <p>
+ * One thread runs every connection with a selector, so thousands of games need no more threads
+ * than one. Messages that arrive together are handled together and what they send is written
+ * once they have all been handled, so a busy server makes one write per connection rather than
+ * one per message. A client that stops reading is disconnected once MAX_PENDING bytes are waiting
+ * for it, and one that sends a message only the server sends is disconnected as soon as its type
+ * arrives.
+ * <p>
+ * Any number of clients can watch a game by its number. A watcher is sent a snapshot of the game
+ * then a delta of each move, the placed and flipped spaces, rather than the whole board again.
+ * Each delta is encoded once and the same bytes are queued for every watcher. A watcher whose
+ * queue reaches SPECTATOR_QUEUE messages has them dropped and is sent a fresh snapshot instead, so
+ * a slow watcher costs a bounded amount of memory and catches up with the game as soon as it can
+ * <p>
+ * Usage: GameServer [port]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class GameServer implements Runnable, Closeable {
+	/**
+	 * the port the server listens on unless told otherwise
+	 */
+	public static final int DEFAULT_PORT = 7468;
+	/**
+	 * the most bytes that may wait to be sent to a client before it is disconnected
+	 */
+	public static final int MAX_PENDING = 64 * 1024;
+	/**
+	 * the most messages that may wait to be sent to a watcher before they are replaced by a snapshot
+	 */
+	public static final int SPECTATOR_QUEUE = 64;
+
+	// connections waiting to be accepted, more than the usual 50 so a rush of players isn't refused
+	private static final int BACKLOG = 4096;
+	private static final int BUFFER_SIZE = 256;
+
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	// the player waiting for an opponent for each board size
+	private final Map<Integer, Connection> waiting = new HashMap<>();
+	// the games being played by their numbers, for watchers to find them
+	private final Map<Integer, Match> games = new HashMap<>();
+	// connections with something to write once the current messages have been handled
+	private final List<Connection> flushing = new ArrayList<>();
+	// written to instead of a connection that has been disconnected for not reading
+	private final ByteBuffer discard = ByteBuffer.allocate(16);
+	private final AtomicLong gamesStarted = new AtomicLong();
+	private final AtomicLong gamesFinished = new AtomicLong();
+	private final AtomicLong moves = new AtomicLong();
+	private final AtomicLong snapshots = new AtomicLong();
+	private int nextGame = 1;
+	private volatile boolean closed;
+
+	/**
+	 * A client's connection and the game it is in, if any
+	 */
+	private static class Connection {
+		private final SocketChannel channel;
+		private final SelectionKey key;
+		private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+		private Match match;
+		private char player;
+		private boolean flushing;
+		// for a watcher, the game watched and the shared messages still to be sent
+		private Match watching;
+		private ArrayDeque<ByteBuffer> broadcasts;
+		// set when messages were dropped, a snapshot is queued in their place at the next flush
+		private boolean resync;
+
+		private Connection(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+		}
+	}
+
+	/**
+	 * A game being played between two connections
+	 */
+	private static class Match {
+		private final int number;
+		private final ReversiGame game;
+		private final Connection black;
+		private final Connection white;
+		private final List<Connection> spectators = new ArrayList<>();
+		// the spaces changed by the last move, only kept once the game has been watched
+		private boolean watched;
+		private int[] changed;
+		// the snapshot of the game as it is now, made when first needed after each move
+		private ByteBuffer snapshot;
+		private boolean over;
+
+		private Match(int number, int size, Connection black, Connection white) {
+			this.number = number;
+			this.game = new ReversiGame(size);
+			this.black = black;
+			this.white = white;
+		}
+
+		private ByteBuffer getSnapshot() {
+			if (snapshot == null)
+				snapshot = GameProtocol.snapshot(number, game);
+			return snapshot;
+		}
+	}
+
+	/**
+	 * Creates a GameServer listening on an address, run it to start hosting games
+	 * @param address the address to listen on, port 0 for any free port
+	 * @throws IOException if the address can't be listened on
+	 */
+	public GameServer(InetSocketAddress address) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		try {
+			server.bind(address, BACKLOG);
+			server.configureBlocking(false);
+			server.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			server.close();
+			selector.close();
+			throw e;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		try (GameServer gameServer = new GameServer(new InetSocketAddress(port))) {
+			System.out.println("Reversi server listening on port " + gameServer.getPort());
+			gameServer.run();
+		}
+	}
+
+	/**
+	 * gets the port the server is listening on
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * hosts games until the server is closed
+	 */
+	@Override
+	public void run() {
+		while (!closed) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			if (closed)
+				break;
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				try {
+					if (!key.isValid())
+						continue;
+					if (key.isAcceptable())
+						accept();
+					else if (key.isReadable())
+						read((Connection) key.attachment());
+					if (key.isValid() && key.isWritable())
+						write((Connection) key.attachment());
+				} catch (IOException | RuntimeException e) {
+					// one client going wrong shouldn't stop the others' games
+					if (key.attachment() != null)
+						disconnect((Connection) key.attachment());
+				}
+			}
+			flush();
+		}
+		closeConnections();
+	}
+
+	/**
+	 * stops the server, disconnecting every client
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		selector.wakeup();
+		server.close();
+	}
+
+	/**
+	 * gets the number of games that have started
+	 * @return the number of games
+	 */
+	public long getGamesStarted() {
+		return gamesStarted.get();
+	}
+
+	/**
+	 * gets the number of games that have ended, finished or abandoned
+	 * @return the number of games
+	 */
+	public long getGamesFinished() {
+		return gamesFinished.get();
+	}
+
+	/**
+	 * gets the number of moves made in every game
+	 * @return the number of moves
+	 */
+	public long getMoves() {
+		return moves.get();
+	}
+
+	/**
+	 * gets the number of snapshots queued for watchers, when they start watching or fall behind
+	 * @return the number of snapshots
+	 */
+	public long getSnapshots() {
+		return snapshots.get();
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = server.accept()) != null) {
+			channel.configureBlocking(false);
+			// messages are a few bytes and a player waits for each reply
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			key.attach(new Connection(channel, key));
+		}
+	}
+
+	private void read(Connection connection) throws IOException {
+		if (connection.channel.read(connection.in) < 0) {
+			disconnect(connection);
+			return;
+		}
+		ByteBuffer in = connection.in.flip();
+		while (in.hasRemaining()) {
+			// checked before its length, as a variable length message could be too long to ever be read
+			if (!GameProtocol.isFromClient(in.get(in.position()))) {
+				disconnect(connection);
+				return;
+			}
+			byte type = GameProtocol.nextMessage(in);
+			if (type == 0)
+				break;
+			in.get();
+			handle(connection, type, in);
+			if (!connection.key.isValid())
+				return;
+		}
+		in.compact();
+	}
+
+	private void handle(Connection connection, byte type, ByteBuffer in) {
+		if (type == GameProtocol.JOIN) {
+			join(connection, in.getShort() & 0xffff);
+		} else if (type == GameProtocol.MOVE) {
+			move(connection, in.getInt());
+		} else if (type == GameProtocol.LEAVE) {
+			leave(connection);
+		} else if (type == GameProtocol.WATCH) {
+			watch(connection, in.getInt());
+		} else {
+			// only the server sends the other messages
+			disconnect(connection);
+		}
+	}
+
+	private void join(Connection connection, int size) {
+		if (connection.match != null || connection.watching != null || waiting.containsValue(connection)
+				|| !GameProtocol.isValidSize(size)) {
+			disconnect(connection);
+			return;
+		}
+		Connection opponent = waiting.remove(size);
+		if (opponent == null) {
+			waiting.put(size, connection);
+			return;
+		}
+		Match match = new Match(nextGame++, size, opponent, connection);
+		games.put(match.number, match);
+		opponent.match = match;
+		opponent.player = 'b';
+		connection.match = match;
+		connection.player = 'w';
+		gamesStarted.incrementAndGet();
+		GameProtocol.putStart(output(opponent), 'b', size, match.number);
+		GameProtocol.putStart(output(connection), 'w', size, match.number);
+	}
+
+	private void watch(Connection connection, int number) {
+		if (connection.match != null || waiting.containsValue(connection)) {
+			disconnect(connection);
+			return;
+		}
+		Match match = games.get(number);
+		if (match == null) {
+			GameProtocol.putNoGame(output(connection), number);
+			return;
+		}
+		unwatch(connection);
+		if (!match.watched) {
+			match.watched = true;
+			match.game.addChangeListener(spaces -> match.changed = spaces);
+		}
+		match.spectators.add(connection);
+		connection.watching = match;
+		if (connection.broadcasts == null)
+			connection.broadcasts = new ArrayDeque<>();
+		// the snapshot is queued at the flush, after any moves made with it
+		connection.resync = true;
+		markFlush(connection);
+	}
+
+	private void unwatch(Connection connection) {
+		if (connection.watching == null)
+			return;
+		connection.watching.spectators.remove(connection);
+		connection.watching = null;
+		dropBroadcasts(connection);
+		connection.resync = false;
+	}
+
+	// keeps a message part sent or the client would be sent half of one
+	private static void dropBroadcasts(Connection connection) {
+		ArrayDeque<ByteBuffer> queue = connection.broadcasts;
+		ByteBuffer sending = queue.peek();
+		queue.clear();
+		if (sending != null && sending.position() > 0)
+			queue.add(sending);
+	}
+
+	private void move(Connection connection, int space) {
+		Match match = connection.match;
+		if (match == null) {
+			GameProtocol.putInvalid(output(connection), space);
+			return;
+		}
+		ReversiGame game = match.game;
+		int size = game.getSize();
+		if (game.getCurrentPlayerChar() != connection.player || space < 0 || space >= size * size
+				|| !game.makeMove(space / size, space % size)) {
+			GameProtocol.putInvalid(output(connection), space);
+			return;
+		}
+		moves.incrementAndGet();
+		boolean gameOver = game.isGameOver();
+		if (!gameOver && !game.testForValidTurn(game.getCurrentPlayerChar()))
+			game.nextTurn();
+		char next = gameOver ? 0 : game.getCurrentPlayerChar();
+		GameProtocol.putMoved(output(match.black), space, next);
+		GameProtocol.putMoved(output(match.white), space, next);
+		match.snapshot = null;
+		if (!match.spectators.isEmpty())
+			broadcast(match, GameProtocol.delta(match.number, match.changed, next));
+		if (gameOver)
+			endMatch(match, GameProtocol.FINISHED);
+	}
+
+	private void leave(Connection connection) {
+		waiting.values().remove(connection);
+		unwatch(connection);
+		if (connection.match != null)
+			endMatch(connection.match, GameProtocol.ABANDONED);
+	}
+
+	// tells both players and the watchers the game is over, they can then join or watch another
+	private void endMatch(Match match, byte reason) {
+		if (match.over)
+			return;
+		match.over = true;
+		games.remove(match.number);
+		ReversiGame game = match.game;
+		for (Connection player : new Connection[] { match.black, match.white }) {
+			player.match = null;
+			if (player.key.isValid())
+				GameProtocol.putGameOver(output(player), reason, game.getBlackCount(), game.getWhiteCount());
+		}
+		if (!match.spectators.isEmpty()) {
+			ByteBuffer gameOver = ByteBuffer.allocate(10);
+			GameProtocol.putGameOver(gameOver, reason, game.getBlackCount(), game.getWhiteCount());
+			gameOver.flip();
+			for (Connection spectator : match.spectators) {
+				// the end is always sent, after the snapshot in place of any moves dropped
+				if (spectator.resync)
+					queueSnapshot(spectator);
+				spectator.broadcasts.add(gameOver.duplicate());
+				spectator.watching = null;
+				markFlush(spectator);
+			}
+			match.spectators.clear();
+		}
+		gamesFinished.incrementAndGet();
+	}
+
+	// queues a message shared by every watcher of a game, each gets its own view of the same bytes
+	private void broadcast(Match match, ByteBuffer message) {
+		for (Connection spectator : match.spectators) {
+			if (spectator.resync)
+				continue;
+			if (spectator.broadcasts.size() >= SPECTATOR_QUEUE) {
+				dropBroadcasts(spectator);
+				spectator.resync = true;
+			} else {
+				spectator.broadcasts.add(message.duplicate());
+			}
+			markFlush(spectator);
+		}
+	}
+
+	private void queueSnapshot(Connection spectator) {
+		spectator.broadcasts.add(spectator.watching.getSnapshot().duplicate());
+		spectator.resync = false;
+		snapshots.incrementAndGet();
+	}
+
+	/**
+	 * gets the buffer for a message to a connection, making room for the longest message. The
+	 * connection is written to once the messages being handled are done
+	 */
+	private ByteBuffer output(Connection connection) {
+		ByteBuffer out = connection.out;
+		if (out.remaining() < discard.capacity()) {
+			if (out.capacity() >= MAX_PENDING) {
+				disconnect(connection);
+				return discard.clear();
+			}
+			connection.out = ByteBuffer.allocate(2 * out.capacity()).put(out.flip());
+		}
+		markFlush(connection);
+		return connection.out;
+	}
+
+	private void markFlush(Connection connection) {
+		if (!connection.flushing) {
+			connection.flushing = true;
+			flushing.add(connection);
+		}
+	}
+
+	private void flush() {
+		// by index, as disconnecting a connection that can't be written to adds the others in its game
+		for (int i = 0; i < flushing.size(); i++) {
+			Connection connection = flushing.get(i);
+			connection.flushing = false;
+			if (!connection.key.isValid())
+				continue;
+			try {
+				if (connection.resync)
+					queueSnapshot(connection);
+				write(connection);
+			} catch (IOException | RuntimeException e) {
+				disconnect(connection);
+			}
+		}
+		flushing.clear();
+	}
+
+	// writes what it can, waiting to be told it can write more when the client's socket is full
+	private void write(Connection connection) throws IOException {
+		ByteBuffer out = connection.out.flip();
+		connection.channel.write(out);
+		out.compact();
+		ArrayDeque<ByteBuffer> queue = connection.broadcasts;
+		if (out.position() == 0 && queue != null && !queue.isEmpty()) {
+			connection.channel.write(queue.toArray(new ByteBuffer[queue.size()]));
+			while (!queue.isEmpty() && !queue.peek().hasRemaining()) {
+				queue.poll();
+			}
+		}
+		boolean unsent = out.position() > 0 || queue != null && !queue.isEmpty();
+		int interest = unsent ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+		if (connection.key.interestOps() != interest)
+			connection.key.interestOps(interest);
+	}
+
+	private void disconnect(Connection connection) {
+		if (!connection.key.isValid())
+			return;
+		connection.key.cancel();
+		leave(connection);
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void closeConnections() {
+		for (SelectionKey key : selector.keys()) {
+			try {
+				key.channel().close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		try {
+			selector.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
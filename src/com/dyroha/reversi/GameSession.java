@@ -1,40 +1,82 @@
 package com.dyroha.reversi;
 
-import java.awt.Component;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-
-import javax.imageio.ImageIO;
-import javax.swing.JPanel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A game session for Reversi
+ * A game session for Reversi: the players, their scores over a run of games and the game being
+ * played. A session knows nothing of how it is shown, it tells a SessionListener what happens and
+ * the Reversi window is one such listener, so any number of sessions can run without a display.
+ * <p>
+ * Moves are checked, and chosen for computer players, on background engine threads using a copy of
+ * the game. The result is then made through the session's event executor, which for a window is
+ * the event thread so the board is only changed where it is painted. By default results are made
+ * straight away on the engine thread. Every method that changes the session is synchronized, so
+ * either way the session is changed by one thread at a time
  * 
  * @version 21/04/2021
  * @author Dylan Hamilton
  */
 public class GameSession {
-	private Reversi gui;
+	// moves are checked and searched here rather than by the caller, so a window never waits
+	private static final ExecutorService ENGINE = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), daemonThreads("reversi engine"));
+	private static final ScheduledExecutorService PROGRESS = Executors.newSingleThreadScheduledExecutor(
+			daemonThreads("reversi progress"));
+	// milliseconds engine work runs before the listener is told it is thinking, about a frame
+	private static final int PROGRESS_DELAY = 16;
+	private static final SessionListener NO_LISTENER = new SessionListener() {};
+
+	private SessionListener listener = NO_LISTENER;
+	private Executor events = Runnable::run;
 	private ReversiGame game;
 	private int blackScore;
 	private int whiteScore;
 	private String blackName;
 	private String whiteName;
-	private GameBoard gameBoard;
-	private BufferedImage blankSpace;
-	private BufferedImage blackPiece;
-	private BufferedImage whitePiece;
+	private ComputerPlayer blackComputer;
+	private ComputerPlayer whiteComputer;
+	private MoveJournal journal;
+	// work in progress on the engine, the computer player searching in it, if any
+	private Future<?> pending;
+	private ComputerPlayer thinking;
+	// counts cancels, work submitted before the last one is dropped when it finishes
+	private int generation;
+	private boolean finished;
+	private ScheduledFuture<?> progress;
+	private boolean progressShown;
+
+	/**
+	 * The outcome of a turn worked out on the engine
+	 */
+	private static class Turn {
+		private final int move;
+		private final boolean valid;
+		private final boolean gameOver;
+		private final boolean nextPasses;
+
+		private Turn(int move, boolean valid, boolean gameOver, boolean nextPasses) {
+			this.move = move;
+			this.valid = valid;
+			this.gameOver = gameOver;
+			this.nextPasses = nextPasses;
+		}
+	}
 	
 	/**
-	 * Creates a new GameSession
-	 * @param gameWindow the gui it is connected to
-	 * @throws IOException thrown if board space images cannot be found
+	 * Creates a new GameSession, with no game until one is started
 	 */
-	public GameSession(Reversi gameWindow) throws IOException {
-		gui = gameWindow;
+	public GameSession() {
 		blackScore = 0;
 		whiteScore = 0;
-		getBoardImages();
 	}
 	
 	/**
@@ -44,129 +86,263 @@ public class GameSession {
 	 * @param blackScore current score for black
 	 * @param whiteScore current score for white
 	 * @param game current ReversiGame game
-	 * @throws IOException thrown if board space images cannot be found
 	 */
-	public GameSession(String blackName, String whiteName, int blackScore, int whiteScore, ReversiGame game) throws IOException {
+	public GameSession(String blackName, String whiteName, int blackScore, int whiteScore, ReversiGame game) {
 		this.blackName = blackName;
 		this.whiteName = whiteName;
 		this.blackScore = blackScore;
 		this.whiteScore = whiteScore;
-		getBoardImages();
 		this.game = game;
-		gameBoard = new GameBoard(game.getSize());
-		generateSpaces(game.getSize());
 	}
 
-	private void getBoardImages() throws IOException {
-			blankSpace = ImageIO.read(getClass().getResource("/resources/blank_space.png"));
-			blackPiece = ImageIO.read(getClass().getResource("/resources/black_piece.png"));
-			whitePiece = ImageIO.read(getClass().getResource("/resources/white_piece.png"));
-		}
-	
+	private static ThreadFactory daemonThreads(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread thread = new Thread(r, name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * sets the listener for the session and tells it the scores, and the names once a game has
+	 * been started
+	 * @param listener the listener, null for none
+	 */
+	public synchronized void setListener(SessionListener listener) {
+		this.listener = listener == null ? NO_LISTENER : listener;
+		this.listener.scoresChanged(blackScore, whiteScore);
+		if (game != null)
+			this.listener.namesChanged(blackName, whiteName);
+	}
+
+	/**
+	 * sets where the results of engine work are made and the listener told of them, such as
+	 * SwingUtilities::invokeLater for a window. Methods of the session should only be called from
+	 * the same thread
+	 * @param events the executor, run straight away on the engine thread by default
+	 */
+	public synchronized void setEventExecutor(Executor events) {
+		this.events = events;
+	}
+
 	/**
 	 * creates a new reversi game
 	 * @param bName player name for black
 	 * @param wName player name for white
 	 * @param size size of the game
 	 */
-	public void startGame(String bName, String wName, int size) {
+	public synchronized void startGame(String bName, String wName, int size) {
+		cancel();
 		if(game == null) {
 			blackName = bName;
 			whiteName = wName;
 		} else if (game.isGameOver()){
 			blackScore += game.getBlackCount();
 			whiteScore += game.getWhiteCount();
-			gui.setBlackScore(blackScore);
-			gui.setWhiteScore(whiteScore);
+			listener.scoresChanged(blackScore, whiteScore);
 		}
 		game = new ReversiGame(size);
 	}
 	
 	/**
-	 * generates the board for the gui
-	 */
-	public void setUpGame() {
-		gameBoard = new GameBoard(game.getSize());
-		generateSpaces(game.getSize());
-		updateGUI(true);
-		refreshBoard();
-	}
-
-	private void generateSpaces(int size) {
-		for (int y = 0; y < size; y++) {
-			for (int x = 0; x < size; x++) {
-				int j = y;
-				int i = x;
-				BoardSpace space = new BoardSpace(j, i, blankSpace);
-				space.addActionListener(e -> {
-					if (game.placePiece(j, i)) {
-						refreshBoard();
-						if (game.isGameOver()) {
-							updateGUI(true);
-							gui.endOfGameEvent(game.findWinner());
-							return;
-						} else if (!game.testForValidTurn(game.getCurrentPlayerChar())) {
-							noValidMoves(game.getCurrentPlayerStr());
-							game.nextTurn();
-						}
-						updateGUI(true);
-					} else {
-						updateGUI(false);
-					}
-				});
-				gameBoard.add(space);
+	 * gets the game ready to play, letting the computer go if it is its turn
+	 */
+	public synchronized void setUpGame() {
+		cancel();
+		finished = false;
+		updateListener(true);
+		if (journal != null) {
+			try {
+				journal.snapshot(this);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 		}
+		playComputerTurns();
 	}
 
-	private void updateGUI(boolean isValidTurn) {
-		gui.setBlackPieces(game.getBlackCount());
-		gui.setWhitePieces(game.getWhiteCount());
-		if (isValidTurn)
-			gui.setMessageBar(game.getCurrentPlayerStr() + "'s turn");
-		else
-			gui.setMessageBar("Invalid move");
-		
+	/**
+	 * makes a person's move for the current player. Nothing happens if it is a computer player's
+	 * turn, the game is over or a turn is still being worked out
+	 * @param y y position (row) of the space
+	 * @param x x position (collumn) of the space
+	 * @return true if the move was taken to be checked and made, the listener hears if it was invalid
+	 */
+	public synchronized boolean playMove(int y, int x) {
+		if (game == null || pending != null || finished || getComputerPlayer(game.getCurrentPlayerChar()) != null)
+			return false;
+		submitTurn(null, y * game.getSize() + x);
+		return true;
 	}
-	
-	private void noValidMoves(String player) {
-		gui.alertNoTurn(player);
-	}
-
-	private void refreshBoard() {
-		for (Component c : gameBoard.getComponents()) {
-			if(c instanceof BoardSpace) {
-				BoardSpace space = (BoardSpace) c;
-				char piece = game.getBoardPiece(space.getYPos(), space.getXPos());
-				if (piece == '-') continue;
-				if (piece == 'b')
-					space.setCurrentImage(blackPiece);
-				else if (piece == 'w') 
-					space.setCurrentImage(whitePiece);
-			}
+
+	/**
+	 * works out a turn on the engine, on a copy of the game so the board can still be read, then
+	 * makes it through the event executor
+	 * @param computer the computer player to choose the move, null for a person's move
+	 * @param move the person's move as (y * size + x)
+	 */
+	private void submitTurn(ComputerPlayer computer, int move) {
+		ReversiGame work = new ReversiGame(game);
+		int submitted = generation;
+		Executor results = events;
+		thinking = computer;
+		pending = ENGINE.submit(() -> {
+			Turn turn = playTurn(work, computer, move);
+			results.execute(() -> applyTurn(submitted, turn, computer));
+		});
+		progress = PROGRESS.schedule(() -> results.execute(() -> showProgress(submitted)), PROGRESS_DELAY,
+				TimeUnit.MILLISECONDS);
+	}
+
+	// runs on the engine, the game is a copy only it uses
+	private static Turn playTurn(ReversiGame work, ComputerPlayer computer, int move) {
+		int size = work.getSize();
+		if (computer != null) {
+			if (work.isGameOver())
+				return new Turn(-1, false, true, false);
+			move = computer.chooseMove(work);
 		}
+		if (move < 0)
+			work.makePass();
+		else if (!work.makeMove(move / size, move % size))
+			return new Turn(move, false, false, false);
+		boolean gameOver = work.isGameOver();
+		return new Turn(move, true, gameOver, !gameOver && !work.testForValidTurn(work.getCurrentPlayerChar()));
+	}
+
+	// makes a turn worked out by the engine, then deals with the end of the game or a pass
+	private synchronized void applyTurn(int submitted, Turn turn, ComputerPlayer computer) {
+		// anything cancelled since is for a game that has gone
+		if (submitted != generation)
+			return;
+		pending = null;
+		thinking = null;
+		stopProgress();
+		if (!turn.valid) {
+			if (turn.gameOver)
+				finished = true;
+			else
+				updateListener(false);
+			return;
+		}
+		String player = game.getCurrentPlayerStr();
+		if (turn.move < 0) {
+			listener.passed(player);
+			game.nextTurn();
+		} else {
+			game.placePiece(turn.move / game.getSize(), turn.move % game.getSize());
+		}
+		record(turn.move);
+		if (turn.gameOver) {
+			finished = true;
+			updateListener(true);
+			listener.gameOver(game.findWinner());
+			return;
+		}
+		if (turn.nextPasses) {
+			listener.passed(game.getCurrentPlayerStr());
+			game.nextTurn();
+			record(-1);
+		}
+		updateListener(true);
+		if (computer != null && turn.move >= 0)
+			listener.moveSearched(player, computer.getDepthReached(), computer.getNodesPerSecond());
+		playComputerTurns();
+	}
+
+	// starts the computer's turn if it is a computer player's turn
+	private void playComputerTurns() {
+		ComputerPlayer computer = getComputerPlayer(game.getCurrentPlayerChar());
+		if (computer != null && pending == null && !finished)
+			submitTurn(computer, -1);
 	}
 
 	/**
-	 * get's the game board gui element
-	 * @return the board
+	 * cancels any turn being worked out, stopping the computer's search, so nothing from it is
+	 * made in the game
 	 */
-	public JPanel getBoard() {
-		return gameBoard;
+	public synchronized void cancel() {
+		generation++;
+		if (pending != null) {
+			// not interrupted, an interrupt would close the journal's channel if it was writing
+			pending.cancel(false);
+			pending = null;
+		}
+		if (thinking != null) {
+			thinking.stop();
+			thinking = null;
+		}
+		stopProgress();
+	}
+
+	private synchronized void showProgress(int submitted) {
+		if (submitted == generation && pending != null && !progressShown) {
+			progressShown = true;
+			listener.thinking(true);
+		}
+	}
+
+	private void stopProgress() {
+		if (progress != null) {
+			progress.cancel(false);
+			progress = null;
+		}
+		if (progressShown) {
+			progressShown = false;
+			listener.thinking(false);
+		}
+	}
+
+	// adds a move or pass (-1) to the journal, a journal that can't be written shouldn't stop the game
+	private void record(int space) {
+		if (journal == null)
+			return;
+		try {
+			journal.recordMove(space);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	/**
-	 * sets the gui for the session
-	 * @param gui the GameWindow gui for the session
+	 * sets the journal every move is written to, it gets a snapshot of the session each time a game
+	 * is set up
+	 * @param journal the journal, null for none
 	 */
-	public void setGui(Reversi gui) {
-		this.gui = gui;
-		gui.setBlackScore(blackScore);
-		gui.setWhiteScore(whiteScore);
-		gui.setBlackName(blackName);
-		gui.setWhiteName(whiteName);
+	public synchronized void setJournal(MoveJournal journal) {
+		this.journal = journal;
 	}
-	
+
+	private ComputerPlayer getComputerPlayer(char player) {
+		return player == 'b' ? blackComputer : whiteComputer;
+	}
+
+	/**
+	 * sets a computer player to play for a side, or null for a person to play it
+	 * @param player the side the computer plays ('b' or 'w')
+	 * @param computer the computer player
+	 */
+	public synchronized void setComputerPlayer(char player, ComputerPlayer computer) {
+		// a search by the player being replaced is no use any more
+		if (thinking != null)
+			cancel();
+		if (player == 'b')
+			blackComputer = computer;
+		else
+			whiteComputer = computer;
+		if (game != null)
+			playComputerTurns();
+	}
+
+	private void updateListener(boolean isValidTurn) {
+		listener.piecesChanged(game.getBlackCount(), game.getWhiteCount());
+		if (isValidTurn)
+			listener.turnStarted(game.getCurrentPlayerStr());
+		else
+			listener.invalidMove();
+	}
+
 	/**
 	 * gets the size for the current game of reversi
 	 * @return the size of the current game
@@ -175,6 +351,46 @@ public class GameSession {
 		return game.getSize();
 	}
 
+	/**
+	 * gets the game being played
+	 * @return the game, null before one is started
+	 */
+	public ReversiGame getGame() {
+		return game;
+	}
+
+	/**
+	 * gets the player name for black
+	 * @return black's name
+	 */
+	public String getBlackName() {
+		return blackName;
+	}
+
+	/**
+	 * gets the player name for white
+	 * @return white's name
+	 */
+	public String getWhiteName() {
+		return whiteName;
+	}
+
+	/**
+	 * gets black's score from finished games
+	 * @return black's score
+	 */
+	public int getBlackScore() {
+		return blackScore;
+	}
+
+	/**
+	 * gets white's score from finished games
+	 * @return white's score
+	 */
+	public int getWhiteScore() {
+		return whiteScore;
+	}
+
 	/**
 	 * returns the session as to be saved in a file in the format
 	 * "{blackName};{blackScore};{whiteName};{whiteScore};{game}"
@@ -0,0 +1,80 @@
+package com.dyroha.reversi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts times in buckets so percentiles can be found from millions of them without keeping each
+ * one. Every power of two is split into 16 buckets, so a percentile is within about 6% of the real
+ * time. Any number of threads can record at once
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * counts a time
+	 * @param nanos the time in nanoseconds
+	 */
+	void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		counts.incrementAndGet(bucket(nanos));
+		total.incrementAndGet();
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * gets the number of times counted
+	 * @return the count
+	 */
+	long getCount() {
+		return total.get();
+	}
+
+	/**
+	 * gets the longest time counted
+	 * @return the time in nanoseconds
+	 */
+	long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * finds the time that a percentage of times counted are at or below
+	 * @param percent 0 to 100
+	 * @return the start of the bucket holding the percentile in nanoseconds, 0 if nothing was counted
+	 */
+	long getPercentile(double percent) {
+		long wanted = (long) Math.ceil(percent / 100 * total.get());
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= wanted && seen > 0)
+				return lowest(i);
+		}
+		return 0;
+	}
+
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS)
+			return (int) nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int mantissa = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+	}
+
+	private static long lowest(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long mantissa = bucket & (SUB_BUCKETS - 1);
+		return 1L << exponent | mantissa << (exponent - SUB_BITS);
+	}
+}
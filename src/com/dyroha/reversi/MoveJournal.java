@@ -0,0 +1,311 @@
+package com.dyroha.reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the current GameSession safe from crashes. The session is written as a snapshot, in the
+ * ReversiIO binary format, and every move and pass after it is appended to a journal as a small
+ * record. On startup the session is rebuilt from the latest snapshot and its journal. A snapshot
+ * holds the game's current position without its move history, so loading one replays nothing and
+ * recovery never replays more than SNAPSHOT_INTERVAL records however long the game has gone on.
+ * <p>
+ * Each record is written as soon as it is made, so a crash of the program loses nothing, and the
+ * journal is forced to disk in batches, every SYNC_BATCH records or SYNC_INTERVAL milliseconds,
+ * so a crash of the machine loses at most that much. After SNAPSHOT_INTERVAL records a new
+ * snapshot is taken and the journal starts again, keeping replay short.
+ * <p>
+ * Snapshots and journals are numbered by generation: snapshot-N.rvs holds the session when
+ * journal-N.log was started. A new snapshot is written to a temporary file and renamed into place
+ * before the old generation is deleted, so a crash at any point leaves either the old snapshot
+ * with its whole journal or the new snapshot. Journal records are 9 bytes, a type, the space and a
+ * CRC32, and replay stops at the first record that was only partly written
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class MoveJournal implements Closeable {
+	/**
+	 * the system property giving the directory to keep the journal in
+	 */
+	public static final String DIRECTORY_PROPERTY = "reversi.journalDirectory";
+	/**
+	 * records written between forcing the journal to disk
+	 */
+	public static final int SYNC_BATCH = 64;
+	/**
+	 * milliseconds between forcing the journal to disk while records are waiting
+	 */
+	public static final long SYNC_INTERVAL = 200;
+	/**
+	 * records written between snapshots
+	 */
+	public static final int SNAPSHOT_INTERVAL = 1024;
+
+	private static final int MAGIC = 0x52564a4e;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 13;
+	private static final int RECORD_BYTES = 9;
+	private static final byte MOVE = 'M';
+	private static final byte PASS = 'P';
+
+	private final Path directory;
+	private final ScheduledExecutorService syncer;
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+	private final CRC32 crc = new CRC32();
+	private GameSession session;
+	private FileChannel journal;
+	private long generation;
+	private int records;
+	private int unsynced;
+
+	/**
+	 * Creates a MoveJournal kept in a directory, nothing is written until the first snapshot
+	 * @param directory the directory, created if it does not exist
+	 * @throws IOException if the directory can't be created
+	 */
+	public MoveJournal(Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		generation = latestGeneration();
+		deleteOlderFiles();
+		syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "journal sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		syncer.scheduleWithFixedDelay(() -> {
+			try {
+				sync();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}, SYNC_INTERVAL, SYNC_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * gets the directory given by the reversi.journalDirectory system property, or .reversi in the
+	 * user's home directory
+	 * @return the directory
+	 */
+	public static Path defaultDirectory() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory != null)
+			return Paths.get(directory);
+		return Paths.get(System.getProperty("user.home"), ".reversi");
+	}
+
+	/**
+	 * rebuilds the last session from its snapshot and journal. The game's move history only holds
+	 * the moves replayed from the journal. The session is not journalled until it is given to
+	 * snapshot
+	 * @return the session, null if there is none
+	 * @throws IOException if the snapshot can't be read
+	 */
+	public synchronized GameSession recover() throws IOException {
+		if (generation == 0 || !Files.exists(snapshotFile(generation)))
+			return null;
+		GameSession recovered = ReversiIO.decodeSession(ByteBuffer.wrap(Files.readAllBytes(snapshotFile(generation))));
+		Path journalFile = journalFile(generation);
+		if (!Files.exists(journalFile))
+			return recovered;
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+		if (bytes.remaining() < HEADER_BYTES || bytes.getInt() != MAGIC || bytes.get() != VERSION
+				|| bytes.getLong() != generation)
+			return recovered;
+		ReversiGame game = recovered.getGame();
+		while (bytes.remaining() >= RECORD_BYTES) {
+			byte type = bytes.get();
+			int space = bytes.getInt();
+			int check = bytes.getInt();
+			// a record that doesn't check out was being written when the program stopped
+			if (check != checksum(type, space))
+				break;
+			if (type == PASS)
+				game.makePass();
+			else if (type != MOVE || space < 0 || space >= game.getSize() * game.getSize()
+					|| !game.makeMove(space / game.getSize(), space % game.getSize()))
+				break;
+		}
+		return recovered;
+	}
+
+	/**
+	 * writes a snapshot of a session and starts a new journal for it, later records are moves in
+	 * this session
+	 * @param session the session, with a game
+	 * @throws IOException if the snapshot or journal can't be written
+	 */
+	public synchronized void snapshot(GameSession session) throws IOException {
+		this.session = session;
+		long next = generation + 1;
+		ByteBuffer snapshot = ReversiIO.encodeSession(session, false);
+		Path temporary = directory.resolve("snapshot-" + next + ".tmp");
+		write(temporary, snapshot);
+		Files.move(temporary, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).put((byte) VERSION).putLong(next).flip();
+		closeJournal();
+		journal = FileChannel.open(journalFile(next), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		while (header.hasRemaining()) {
+			journal.write(header);
+		}
+		journal.force(false);
+		syncDirectory();
+
+		deleteGeneration(generation);
+		generation = next;
+		records = 0;
+		unsynced = 0;
+	}
+
+	/**
+	 * appends a move to the journal, taking a new snapshot once enough moves have been made
+	 * @param space the space placed as (y * size + x), -1 for a pass
+	 * @throws IOException if the record can't be written
+	 */
+	public synchronized void recordMove(int space) throws IOException {
+		if (journal == null)
+			return;
+		byte type = space < 0 ? PASS : MOVE;
+		record.clear();
+		record.put(type).putInt(space).putInt(checksum(type, space)).flip();
+		while (record.hasRemaining()) {
+			journal.write(record);
+		}
+		records++;
+		if (++unsynced >= SYNC_BATCH)
+			sync();
+		if (records >= SNAPSHOT_INTERVAL)
+			snapshot(session);
+	}
+
+	/**
+	 * forces any records not yet on disk to it
+	 * @throws IOException if the journal can't be forced
+	 */
+	public synchronized void sync() throws IOException {
+		if (journal != null && unsynced > 0) {
+			journal.force(false);
+			unsynced = 0;
+		}
+	}
+
+	/**
+	 * deletes the snapshot and journal, so there is nothing to recover until the next snapshot
+	 * @throws IOException if the files can't be deleted
+	 */
+	public synchronized void clear() throws IOException {
+		closeJournal();
+		session = null;
+		deleteGeneration(generation);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		syncer.shutdown();
+		sync();
+		closeJournal();
+	}
+
+	private void closeJournal() throws IOException {
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+	}
+
+	private int checksum(byte type, int space) {
+		crc.reset();
+		crc.update(type);
+		crc.update(space >>> 24);
+		crc.update(space >>> 16);
+		crc.update(space >>> 8);
+		crc.update(space);
+		return (int) crc.getValue();
+	}
+
+	private static void write(Path file, ByteBuffer buffer) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+
+	// makes the renames and new files in the directory survive a crash, where the platform allows
+	private void syncDirectory() {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// some platforms can't open a directory, renames there are durable anyway
+		}
+	}
+
+	private void deleteGeneration(long old) throws IOException {
+		if (old > 0) {
+			Files.deleteIfExists(journalFile(old));
+			Files.deleteIfExists(snapshotFile(old));
+		}
+	}
+
+	// finds the newest complete snapshot, temporary files are left from crashes part way through one
+	private long latestGeneration() throws IOException {
+		long latest = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*.rvs")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					latest = Math.max(latest, Long.parseLong(name.substring(9, name.length() - 4)));
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+		return latest;
+	}
+
+	// removes generations before the newest and temporary files, both left by crashes part way through a snapshot
+	private void deleteOlderFiles() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "{snapshot,journal}-*")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.endsWith(".tmp")) {
+					Files.deleteIfExists(file);
+					continue;
+				}
+				int dot = name.lastIndexOf('.');
+				try {
+					if (dot > 0 && Long.parseLong(name.substring(name.indexOf('-') + 1, dot)) < generation)
+						Files.deleteIfExists(file);
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+	}
+
+	private Path snapshotFile(long generation) {
+		return directory.resolve("snapshot-" + generation + ".rvs");
+	}
+
+	private Path journalFile(long generation) {
+		return directory.resolve("journal-" + generation + ".log");
+	}
+}
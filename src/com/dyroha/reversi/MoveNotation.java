@@ -0,0 +1,73 @@
+package com.dyroha.reversi;
+
+/**
+ * Converts moves to and from the usual written form, a collumn letter then a row number counting
+ * from 1 at the top, so "f5" is row 4 collumn 5. Boards up to 26 wide can be written
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public final class MoveNotation {
+
+	// private constructor to hide the public super one
+	private MoveNotation() {}
+
+	/**
+	 * writes a move
+	 * @param space the space as (y * size + x)
+	 * @param size the size of the board
+	 * @return the move such as "f5"
+	 */
+	public static String toText(int space, int size) {
+		return (char) ('a' + space % size) + Integer.toString(space / size + 1);
+	}
+
+	/**
+	 * reads a move
+	 * @param move the move such as "f5" or "F5"
+	 * @param size the size of the board
+	 * @return the space as (y * size + x)
+	 * @throws IllegalArgumentException if the move is not a space on the board
+	 */
+	public static int toSpace(String move, int size) {
+		if (move.length() < 2)
+			throw new IllegalArgumentException("Not a move: " + move);
+		int x = Character.toLowerCase(move.charAt(0)) - 'a';
+		int y;
+		try {
+			y = Integer.parseInt(move.substring(1)) - 1;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a move: " + move, e);
+		}
+		if (x < 0 || x >= size || y < 0 || y >= size)
+			throw new IllegalArgumentException("Move " + move + " is outside the board");
+		return y * size + x;
+	}
+
+	/**
+	 * splits a run of moves with nothing between them, such as "f5d6c3", into moves
+	 * @param moves the moves
+	 * @param size the size of the board
+	 * @param spaces buffer for the spaces, long enough for every move
+	 * @return the number of moves read
+	 * @throws IllegalArgumentException if any move is not a space on the board
+	 */
+	public static int parseMoves(String moves, int size, int[] spaces) {
+		int count = 0;
+		int i = 0;
+		while (i < moves.length()) {
+			char c = moves.charAt(i);
+			if (!Character.isLetter(c)) {
+				i++;
+				continue;
+			}
+			int end = i + 1;
+			while (end < moves.length() && Character.isDigit(moves.charAt(end))) {
+				end++;
+			}
+			spaces[count++] = toSpace(moves.substring(i, end), size);
+			i = end;
+		}
+		return count;
+	}
+}
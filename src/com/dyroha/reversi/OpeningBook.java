@@ -0,0 +1,155 @@
+package com.dyroha.reversi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read only book of opening moves. The book is a file of fixed size records sorted by canonical
+ * position hash (see Symmetry), each giving the best move and its score in the canonical
+ * orientation. The file is memory mapped rather than read, so opening a book costs nothing however
+ * large it is, and positions are found by binary search straight on the mapped bytes.
+ * <p>
+ * The file is a 16 byte header, the magic number "RVBK", the version, the board size and the
+ * number of records, followed by the records of 16 bytes each: the hash, the move as
+ * (y * size + x) or -1 and the score for the player to move. Books are made by OpeningBookBuilder
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class OpeningBook {
+	/**
+	 * the system property giving the file of the shared book
+	 */
+	public static final String FILE_PROPERTY = "reversi.openingBook";
+
+	static final int MAGIC = 0x5256424b;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final int RECORD_BYTES = 16;
+
+	private static OpeningBook shared;
+	private static boolean sharedLoaded;
+
+	private final MappedByteBuffer buffer;
+	private final int size;
+	private final int records;
+
+	/**
+	 * Opens an OpeningBook
+	 * @param file the book file
+	 * @throws IOException if the file can't be read or is not a book
+	 */
+	public OpeningBook(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Not an opening book: " + file);
+			// the mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.getInt(0) != MAGIC)
+			throw new IOException("Not an opening book: " + file);
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported opening book version " + buffer.getInt(4) + ": " + file);
+		size = buffer.getInt(8);
+		records = buffer.getInt(12);
+		if (records < 0 || HEADER_BYTES + (long) records * RECORD_BYTES > buffer.capacity())
+			throw new IOException("Opening book is truncated: " + file);
+	}
+
+	/**
+	 * gets the book used by computer players by default, opened on first use from the file given by
+	 * the reversi.openingBook system property
+	 * @return the shared book, null if the property is not set or the book can't be opened
+	 */
+	public static synchronized OpeningBook shared() {
+		if (!sharedLoaded) {
+			sharedLoaded = true;
+			String file = System.getProperty(FILE_PROPERTY);
+			if (file != null) {
+				try {
+					shared = new OpeningBook(new File(file));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * checks if a position is in the book
+	 * @param game the game
+	 * @return true if the book has the position or one of its rotations or reflections
+	 */
+	public boolean contains(ReversiGame game) {
+		return game.getSize() == size && find(Symmetry.canonicalHash(game)) >= 0;
+	}
+
+	/**
+	 * gets the book move for a position
+	 * @param game the game
+	 * @return the space as (y * size + x), -1 if the position is not in the book
+	 */
+	public int getMove(ReversiGame game) {
+		if (game.getSize() != size)
+			return -1;
+		Symmetry.Canonical canonical = Symmetry.canonical(game);
+		int record = find(canonical.getHash());
+		if (record < 0)
+			return -1;
+		int move = buffer.getInt(offset(record) + 8);
+		// the move is stored for the canonical position so turn it back to this one
+		return move < 0 ? -1 : Symmetry.inverse(move, size, canonical.getSymmetry());
+	}
+
+	/**
+	 * gets the score of the book move for a position
+	 * @param game the game
+	 * @return the score for the player to move, 0 if the position is not in the book
+	 */
+	public int getScore(ReversiGame game) {
+		if (game.getSize() != size)
+			return 0;
+		int record = find(Symmetry.canonicalHash(game));
+		return record < 0 ? 0 : buffer.getInt(offset(record) + 12);
+	}
+
+	/**
+	 * gets the size of board the book is for
+	 * @return the size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * gets the number of positions in the book
+	 * @return the number of records
+	 */
+	public int getRecordCount() {
+		return records;
+	}
+
+	private int find(long key) {
+		int low = 0;
+		int high = records - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long found = buffer.getLong(offset(middle));
+			if (found < key)
+				low = middle + 1;
+			else if (found > key)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	private static int offset(int record) {
+		return HEADER_BYTES + record * RECORD_BYTES;
+	}
+}
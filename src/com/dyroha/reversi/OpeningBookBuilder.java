@@ -0,0 +1,186 @@
+package com.dyroha.reversi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an OpeningBook, either by the computer playing itself or from records of played games.
+ * <p>
+ * Self play searches every position in the first plies of each game and keeps the move and score
+ * found. Each move is sometimes swapped for a random one, from a fixed seed, so the games spread
+ * over different openings. Games are imported from a GameArchive, either a WTHOR archive or a move
+ * list such as "f5d6c3d3" per line, and invalid games are skipped. Each position keeps the move
+ * played there most often and its average final piece difference for the player who played it
+ * <p>
+ * Usage: OpeningBookBuilder selfplay [book] [games] [plies] [time per move ms] [size]
+ * <br>
+ * OpeningBookBuilder import [book] [games file] [plies] [size]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class OpeningBookBuilder {
+	private static final long SEED = 20210425L;
+	// one in this many self play moves is random
+	private static final int RANDOM_MOVES = 4;
+	private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+	// canonical position hash to [move, score] for self play, or to move to [times played, total score]
+	private final Map<Long, int[]> searched = new HashMap<>();
+	private final Map<Long, Map<Integer, int[]>> played = new HashMap<>();
+	private final int size;
+	private final int plies;
+
+	private OpeningBookBuilder(int size, int plies) {
+		this.size = size;
+		this.plies = plies;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: OpeningBookBuilder selfplay [book] [games] [plies] [time per move ms] [size]");
+			System.err.println("       OpeningBookBuilder import [book] [games file] [plies] [size]");
+			System.exit(1);
+		}
+		File book = new File(args[1]);
+		if (args[0].equals("selfplay")) {
+			int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+			int plies = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+			long timeBudget = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+			int size = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+			OpeningBookBuilder builder = new OpeningBookBuilder(size, plies);
+			builder.selfPlay(games, new ComputerPlayer(timeBudget, new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES)));
+			builder.write(book);
+		} else if (args[0].equals("import") && args.length > 2) {
+			int plies = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+			int size = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+			OpeningBookBuilder builder = new OpeningBookBuilder(size, plies);
+			builder.importGames(Paths.get(args[2]));
+			builder.write(book);
+		} else {
+			System.err.println("Unknown mode: " + args[0]);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * plays games from the start, searching each position in the first plies
+	 */
+	private void selfPlay(int games, ComputerPlayer computer) {
+		Random random = new Random(SEED);
+		int[] moves = new int[size * size];
+		for (int i = 0; i < games; i++) {
+			ReversiGame game = new ReversiGame(size);
+			for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+				int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+				if (count == 0) {
+					game.nextTurn();
+					continue;
+				}
+				Symmetry.Canonical canonical = Symmetry.canonical(game);
+				int symmetry = canonical.getSymmetry();
+				long key = canonical.getHash();
+				int[] entry = searched.get(key);
+				if (entry == null) {
+					int move = computer.chooseMove(game);
+					entry = new int[] { Symmetry.transform(move, size, symmetry), computer.getScore() };
+					searched.put(key, entry);
+				}
+				int move = Symmetry.inverse(entry[0], size, symmetry);
+				if (random.nextInt(RANDOM_MOVES) == 0)
+					move = moves[random.nextInt(count)];
+				game.placePiece(move / size, move % size);
+			}
+			System.out.printf("game %d of %d, %d positions%n", i + 1, games, searched.size());
+		}
+		computer.shutdown();
+	}
+
+	/**
+	 * replays every game in an archive, counting the moves played in each position
+	 */
+	private void importGames(Path file) throws IOException {
+		GameArchive.Counts counts = GameArchive.read(file, size, this::addGame);
+		System.out.printf("%d games imported, %d skipped, %d positions%n", counts.getGames(), counts.getInvalid(),
+				played.size());
+	}
+
+	/**
+	 * adds the first plies of one game to the counts
+	 */
+	private void addGame(ArchivedGame archived) {
+		ReversiGame game = new ReversiGame(size);
+		int result = archived.getGame().getBlackCount() - archived.getGame().getWhiteCount();
+		for (int i = 0; i < archived.getMoveCount() && i < plies; i++) {
+			// passes are left out of archives so make them whenever a player can't move
+			if (!game.testForValidTurn(game.getCurrentPlayerChar()))
+				game.nextTurn();
+			int move = archived.getMove(i);
+			Symmetry.Canonical canonical = Symmetry.canonical(game);
+			int symmetry = canonical.getSymmetry();
+			int sign = game.getCurrentPlayerChar() == 'b' ? 1 : -1;
+			int[] counts = played.computeIfAbsent(canonical.getHash(), k -> new HashMap<>())
+					.computeIfAbsent(Symmetry.transform(move, size, symmetry), k -> new int[2]);
+			counts[0]++;
+			counts[1] += sign * result;
+			game.makeMove(move / size, move % size);
+		}
+	}
+
+	/**
+	 * writes the book sorted by hash
+	 */
+	private void write(File file) throws IOException {
+		Map<Long, int[]> entries = new HashMap<>(searched);
+		for (Map.Entry<Long, Map<Integer, int[]>> position : played.entrySet()) {
+			int bestMove = -1;
+			int[] best = null;
+			for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+				int[] counts = move.getValue();
+				if (best == null || counts[0] > best[0] || (counts[0] == best[0] && counts[1] > best[1])) {
+					best = counts;
+					bestMove = move.getKey();
+				}
+			}
+			entries.put(position.getKey(), new int[] { bestMove, Math.round((float) best[1] / best[0]) });
+		}
+
+		long[] keys = new long[entries.size()];
+		int i = 0;
+		for (long key : entries.keySet()) {
+			keys[i++] = key;
+		}
+		Arrays.sort(keys);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+			buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(size).putInt(keys.length);
+			for (long key : keys) {
+				if (buffer.remaining() < OpeningBook.RECORD_BYTES)
+					flush(channel, buffer);
+				int[] entry = entries.get(key);
+				buffer.putLong(key).putInt(entry[0]).putInt(entry[1]);
+			}
+			flush(channel, buffer);
+		}
+		System.out.printf("wrote %d positions to %s%n", keys.length, file);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
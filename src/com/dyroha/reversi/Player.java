@@ -0,0 +1,17 @@
+package com.dyroha.reversi;
+
+/**
+ * Something that can choose moves in a game, such as a ComputerPlayer. A player is only used by
+ * one game at a time
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public interface Player {
+	/**
+	 * chooses a move for the current player of a game, the game itself is left unchanged
+	 * @param game the game to choose a move in
+	 * @return the space to place a piece as (y * size + x), -1 if the current player has to pass
+	 */
+	int chooseMove(ReversiGame game);
+}
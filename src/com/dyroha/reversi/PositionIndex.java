@@ -0,0 +1,503 @@
+package com.dyroha.reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of every position reached in a collection of games, for finding which games passed
+ * through a position and how they ended. Positions are keyed by canonical hash (see Symmetry), so
+ * a position is found in any of its rotations or reflections. Games are numbered from 0 in the
+ * order they are added, the same order as a GameArchive they were read from.
+ * <p>
+ * The index is a directory of segments, each an immutable file for a run of games. Adding games
+ * collects their positions in memory until SEGMENT_POSITIONS have been seen, then writes them as
+ * a new segment, so an index grows by appending segments and is never rewritten. Segments are
+ * memory mapped and searched like an OpeningBook. A segment is a 32 byte header, the magic number
+ * "RVPX", the version, the board size, the number of positions, the first game and the number of
+ * games, then a 32 byte entry per position sorted by hash: the hash, where its postings start,
+ * the number of games, black's wins and white's wins and the length of its postings. The postings
+ * are the games' numbers from the segment's first game, in order, each written as a varint of the
+ * difference from the one before.
+ * <p>
+ * An index is not safe to use from more than one thread at once
+ * <p>
+ * Usage: PositionIndex add [index directory] [archive] [size]
+ * <br>
+ * PositionIndex query [index directory] [position] [most games to list]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class PositionIndex implements Closeable {
+	/**
+	 * the number of positions collected before they are written as a segment
+	 */
+	public static final int SEGMENT_POSITIONS = 1 << 21;
+
+	private static final int MAGIC = 0x52565058;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final int ENTRY_BYTES = 32;
+	private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+	private static final byte BLACK_WIN = 0;
+	private static final byte WHITE_WIN = 1;
+	private static final byte DRAW = 2;
+
+	private final Path directory;
+	private final int size;
+	private final List<Segment> segments = new ArrayList<>();
+	private long nextSegment;
+	private long games;
+
+	// positions of the games not yet written: canonical hash and game number from firstPending
+	private long[] pendingHashes = new long[1024];
+	private int[] pendingGames = new int[1024];
+	private int pendingPositions;
+	private byte[] pendingResults = new byte[64];
+	private int pendingCount;
+	private long firstPending;
+
+	/**
+	 * The games that reached a position
+	 */
+	public static class Result {
+		private final long games;
+		private final long blackWins;
+		private final long whiteWins;
+		private final long[] gameNumbers;
+
+		private Result(long games, long blackWins, long whiteWins, long[] gameNumbers) {
+			this.games = games;
+			this.blackWins = blackWins;
+			this.whiteWins = whiteWins;
+			this.gameNumbers = gameNumbers;
+		}
+
+		/**
+		 * gets the number of games that reached the position
+		 * @return games
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * gets the number of those games black won
+		 * @return black's wins
+		 */
+		public long getBlackWins() {
+			return blackWins;
+		}
+
+		/**
+		 * gets the number of those games white won
+		 * @return white's wins
+		 */
+		public long getWhiteWins() {
+			return whiteWins;
+		}
+
+		/**
+		 * gets the number of those games drawn
+		 * @return draws
+		 */
+		public long getDraws() {
+			return games - blackWins - whiteWins;
+		}
+
+		/**
+		 * gets the numbers of the games, lowest first
+		 * @return the games' numbers, no more than asked for in the query
+		 */
+		public long[] getGameNumbers() {
+			return gameNumbers;
+		}
+	}
+
+	/**
+	 * A segment file, mapped
+	 */
+	private static class Segment {
+		private final MappedByteBuffer buffer;
+		private final int positions;
+		private final long firstGame;
+		private final int games;
+
+		private Segment(Path file, int size) throws IOException {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE)
+					throw new IOException("Not an index segment: " + file);
+				// the mapping stays valid after the channel is closed
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			if (buffer.getInt(0) != MAGIC)
+				throw new IOException("Not an index segment: " + file);
+			if (buffer.getInt(4) != VERSION)
+				throw new IOException("Unsupported index version " + buffer.getInt(4) + ": " + file);
+			if (buffer.getInt(8) != size)
+				throw new IOException("Index segment is for size " + buffer.getInt(8) + " not " + size + ": " + file);
+			positions = buffer.getInt(12);
+			firstGame = buffer.getLong(16);
+			games = buffer.getInt(24);
+			if (positions < 0 || HEADER_BYTES + (long) positions * ENTRY_BYTES > buffer.capacity())
+				throw new IOException("Index segment is truncated: " + file);
+		}
+
+		private int find(long key) {
+			int low = 0;
+			int high = positions - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				long hash = buffer.getLong(HEADER_BYTES + middle * ENTRY_BYTES);
+				if (hash < key)
+					low = middle + 1;
+				else if (hash > key)
+					high = middle - 1;
+				else
+					return HEADER_BYTES + middle * ENTRY_BYTES;
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Opens a PositionIndex, creating it if the directory has none
+	 * @param directory the directory holding the index, created if it does not exist
+	 * @param size the size of board the index is for
+	 * @throws IOException if the directory can't be created or a segment can't be read
+	 */
+	public PositionIndex(Path directory, int size) throws IOException {
+		this.directory = directory;
+		this.size = size;
+		Files.createDirectories(directory);
+		List<Long> numbers = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.rpx")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					numbers.add(Long.parseLong(name.substring(8, name.length() - 4)));
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+		numbers.sort(null);
+		for (long number : numbers) {
+			Segment segment = new Segment(segmentFile(number), size);
+			if (segment.firstGame != games)
+				throw new IOException("Index segment " + number + " starts at game " + segment.firstGame
+						+ " not " + games);
+			segments.add(segment);
+			games += segment.games;
+			nextSegment = number + 1;
+		}
+		firstPending = games;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: PositionIndex add [index directory] [archive] [size]");
+			System.err.println("       PositionIndex query [index directory] [position] [most games to list]");
+			System.exit(1);
+		}
+		Path directory = Paths.get(args[1]);
+		long start = System.nanoTime();
+		if (args[0].equals("add")) {
+			int size = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+			try (PositionIndex index = new PositionIndex(directory, size)) {
+				long before = index.getGameCount();
+				GameArchive.Counts counts = GameArchive.read(Paths.get(args[2]), size, game -> index.add(game.getGame()));
+				index.flush();
+				System.out.printf("added games %d to %d, %d invalid skipped, %d ms%n", before,
+						index.getGameCount() - 1, counts.getInvalid(), (System.nanoTime() - start) / 1_000_000);
+			}
+		} else if (args[0].equals("query")) {
+			int limit = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+			int size = Integer.parseInt(args[2].split(";")[1]);
+			try (PositionIndex index = new PositionIndex(directory, size)) {
+				Result result = index.query(args[2], limit);
+				System.out.printf("%d games, black won %d, white won %d, %d drawn, %.3f ms%n", result.getGames(),
+						result.getBlackWins(), result.getWhiteWins(), result.getDraws(),
+						(System.nanoTime() - start) / 1e6);
+				System.out.println(Arrays.toString(result.getGameNumbers()));
+			}
+		} else {
+			System.err.println("Unknown mode: " + args[0]);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * adds a finished game, indexing the position it started from and every one after a move or pass
+	 * @param game the game, with its move history
+	 * @return the number given to the game
+	 * @throws IOException if a segment had to be written and couldn't be
+	 * @throws IllegalArgumentException if the game is not the size of the index
+	 */
+	public long add(ReversiGame game) throws IOException {
+		if (game.getSize() != size)
+			throw new IllegalArgumentException("Index is for size " + size + " games, not " + game.getSize());
+		if (pendingPositions + game.getMoveCount() + 1 > SEGMENT_POSITIONS)
+			flush();
+		int number = pendingCount;
+		ReversiGame position = game.getStartingPosition();
+		addPosition(Symmetry.canonicalHash(position), number);
+		for (int i = 0; i < game.getMoveCount(); i++) {
+			int move = game.getMove(i);
+			if (move < 0)
+				position.makePass();
+			else
+				position.makeMove(move / size, move % size);
+			addPosition(Symmetry.canonicalHash(position), number);
+		}
+
+		if (pendingCount == pendingResults.length)
+			pendingResults = Arrays.copyOf(pendingResults, 2 * pendingResults.length);
+		int black = game.getBlackCount();
+		int white = game.getWhiteCount();
+		pendingResults[pendingCount++] = black > white ? BLACK_WIN : white > black ? WHITE_WIN : DRAW;
+		return firstPending + number;
+	}
+
+	private void addPosition(long hash, int number) {
+		if (pendingPositions == pendingHashes.length) {
+			pendingHashes = Arrays.copyOf(pendingHashes, 2 * pendingHashes.length);
+			pendingGames = Arrays.copyOf(pendingGames, 2 * pendingGames.length);
+		}
+		pendingHashes[pendingPositions] = hash;
+		pendingGames[pendingPositions++] = number;
+	}
+
+	/**
+	 * writes the games added since the last segment as a new segment, so they can be queried
+	 * @throws IOException if the segment can't be written
+	 */
+	public void flush() throws IOException {
+		if (pendingCount == 0)
+			return;
+		sort(pendingHashes, pendingGames, 0, pendingPositions - 1);
+		int positions = 0;
+		for (int i = 0; i < pendingPositions; i++) {
+			if (i == 0 || pendingHashes[i] != pendingHashes[i - 1])
+				positions++;
+		}
+
+		long number = nextSegment++;
+		Path temporary = directory.resolve("segment-" + number + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+			// the postings go after the entries, which are written once their offsets are known
+			long postingsStart = HEADER_BYTES + (long) positions * ENTRY_BYTES;
+			channel.position(postingsStart);
+			long offset = postingsStart;
+			ByteBuffer entries = ByteBuffer.allocate(positions * ENTRY_BYTES);
+			int i = 0;
+			while (i < pendingPositions) {
+				long hash = pendingHashes[i];
+				int games = 0;
+				int blackWins = 0;
+				int whiteWins = 0;
+				int bytes = 0;
+				int previous = 0;
+				for (; i < pendingPositions && pendingHashes[i] == hash; i++) {
+					if (buffer.remaining() < 5)
+						flush(channel, buffer);
+					bytes += putVarint(buffer, pendingGames[i] - previous);
+					previous = pendingGames[i];
+					games++;
+					if (pendingResults[previous] == BLACK_WIN)
+						blackWins++;
+					else if (pendingResults[previous] == WHITE_WIN)
+						whiteWins++;
+				}
+				entries.putLong(hash).putLong(offset).putInt(games).putInt(blackWins).putInt(whiteWins).putInt(bytes);
+				offset += bytes;
+			}
+			flush(channel, buffer);
+
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(positions).putLong(firstPending)
+					.putInt(pendingCount).putInt(0);
+			buffer.flip();
+			channel.position(0);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			entries.flip();
+			while (entries.hasRemaining()) {
+				channel.write(entries);
+			}
+			channel.force(false);
+		}
+		Path file = segmentFile(number);
+		Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		segments.add(new Segment(file, size));
+
+		games += pendingCount;
+		firstPending = games;
+		pendingPositions = 0;
+		pendingCount = 0;
+	}
+
+	/**
+	 * finds the games that reached a position, in any rotation or reflection
+	 * @param position the position as written by ReversiGame's toString, "turn;size;board"
+	 * @param limit the most game numbers to list, the counts are always of every game
+	 * @return the games
+	 * @throws IllegalArgumentException if the position can't be read or is not the size of the index
+	 */
+	public Result query(String position, int limit) {
+		String[] parts = position.split(";");
+		if (parts.length != 3)
+			throw new IllegalArgumentException("Not a position: " + position);
+		ReversiGame game;
+		try {
+			game = new ReversiGame(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), parts[2]);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Not a position: " + position, e);
+		}
+		return query(game, limit);
+	}
+
+	/**
+	 * finds the games that reached a position, in any rotation or reflection. Only written
+	 * segments are searched, games added since the last flush are not found
+	 * @param position the position
+	 * @param limit the most game numbers to list, the counts are always of every game
+	 * @return the games
+	 * @throws IllegalArgumentException if the position is not the size of the index
+	 */
+	public Result query(ReversiGame position, int limit) {
+		if (position.getSize() != size)
+			throw new IllegalArgumentException("Index is for size " + size + " games, not " + position.getSize());
+		long key = Symmetry.canonicalHash(position);
+		long games = 0;
+		long blackWins = 0;
+		long whiteWins = 0;
+		long[] numbers = new long[16];
+		int listed = 0;
+		for (Segment segment : segments) {
+			int entry = segment.find(key);
+			if (entry < 0)
+				continue;
+			ByteBuffer buffer = segment.buffer;
+			int count = buffer.getInt(entry + 16);
+			games += count;
+			blackWins += buffer.getInt(entry + 20);
+			whiteWins += buffer.getInt(entry + 24);
+			int offset = (int) buffer.getLong(entry + 8);
+			int number = 0;
+			for (int i = 0; i < count && listed < limit; i++) {
+				int value = 0;
+				for (int shift = 0;; shift += 7) {
+					byte b = buffer.get(offset++);
+					value |= (b & 0x7f) << shift;
+					if (b >= 0)
+						break;
+				}
+				number += value;
+				if (listed == numbers.length)
+					numbers = Arrays.copyOf(numbers, 2 * numbers.length);
+				numbers[listed++] = segment.firstGame + number;
+			}
+		}
+		return new Result(games, blackWins, whiteWins, Arrays.copyOf(numbers, listed));
+	}
+
+	/**
+	 * gets the number of games added, including any not yet flushed
+	 * @return the number of games
+	 */
+	public long getGameCount() {
+		return games + pendingCount;
+	}
+
+	/**
+	 * gets the size of board the index is for
+	 * @return the size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * flushes any games not yet written
+	 * @throws IOException if the segment can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+
+	private Path segmentFile(long number) {
+		return directory.resolve("segment-" + number + ".rpx");
+	}
+
+	// sorts positions by hash then game number, a quicksort keeping both arrays in step
+	private static void sort(long[] hashes, int[] games, int low, int high) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			long pivotHash = hashes[middle];
+			int pivotGame = games[middle];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (hashes[i] < pivotHash || (hashes[i] == pivotHash && games[i] < pivotGame)) {
+					i++;
+				}
+				while (hashes[j] > pivotHash || (hashes[j] == pivotHash && games[j] > pivotGame)) {
+					j--;
+				}
+				if (i <= j) {
+					long hash = hashes[i];
+					hashes[i] = hashes[j];
+					hashes[j] = hash;
+					int game = games[i];
+					games[i] = games[j];
+					games[j] = game;
+					i++;
+					j--;
+				}
+			}
+			// recurse into the smaller side so the stack stays shallow
+			if (j - low < high - i) {
+				sort(hashes, games, low, j);
+				low = i;
+			} else {
+				sort(hashes, games, i, high);
+				high = j;
+			}
+		}
+	}
+
+	private static int putVarint(ByteBuffer buffer, int value) {
+		int bytes = 1;
+		while ((value & ~0x7f) != 0) {
+			buffer.put((byte) (value & 0x7f | 0x80));
+			value >>>= 7;
+			bytes++;
+		}
+		buffer.put((byte) value);
+		return bytes;
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
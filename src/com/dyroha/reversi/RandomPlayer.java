@@ -0,0 +1,30 @@
+package com.dyroha.reversi;
+
+import java.util.Random;
+
+/**
+ * A player that makes a random valid move, from a seed so its games can be played again
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class RandomPlayer implements Player {
+	private final Random random;
+	private int[] moves = new int[0];
+
+	/**
+	 * Creates a RandomPlayer
+	 * @param seed the seed for its moves
+	 */
+	public RandomPlayer(long seed) {
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public int chooseMove(ReversiGame game) {
+		if (moves.length < game.getSize() * game.getSize())
+			moves = new int[game.getSize() * game.getSize()];
+		int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+		return count == 0 ? -1 : moves[random.nextInt(count)];
+	}
+}
@@ -4,16 +4,20 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.Graphics;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -22,6 +26,7 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
@@ -33,12 +38,24 @@ import javax.swing.WindowConstants;
  * @version 21/04/2021
  * @author Dylan Hamilton
  */
-public class Reversi {
+public class Reversi implements SessionListener {
+	// milliseconds a computer player may think about each move
+	private static final long COMPUTER_TIME_BUDGET = 1000;
+	/**
+	 * the system property that, when true, prints how long the first frame took to paint
+	 */
+	public static final String STARTUP_TIME_PROPERTY = "reversi.startupTime";
 
-	private JFileChooser fc = new JFileChooser(System.getProperty("user.dir"));
+	// when main started and when the first frame was painted, in System.nanoTime
+	private static long mainStart;
+	private static long firstPaint;
+
+	// made on first use, it is slow to create and most games never open it
+	private JFileChooser fc;
 	private JFrame frame;
 	private GameSession session;
 	private JLabel messageBar;
+	private JProgressBar thinkingBar;
 	private JTextField blackName;
 	private JTextField whiteName;
 	private JLabel blackScore;
@@ -49,13 +66,42 @@ public class Reversi {
 	private JPanel gameBag;
 	private JPanel sidePanel;
 	private int size = 8;
+	private JCheckBoxMenuItem blackComputer;
+	private JCheckBoxMenuItem whiteComputer;
+	private MoveJournal journal;
+	private BufferedImage blankSpace;
+	private BufferedImage blackPiece;
+	private BufferedImage whitePiece;
 
 	public static void main(String[] args) {
-		try {
-			new Reversi();
-		} catch (Exception e) {
-			System.err.println("Something went wrong, application cannot be started");
-			e.printStackTrace();
+		mainStart = System.nanoTime();
+		SwingUtilities.invokeLater(() -> {
+			try {
+				new Reversi();
+			} catch (Exception e) {
+				System.err.println("Something went wrong, application cannot be started");
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * gets how long the program took from main to painting its first frame
+	 * @return the time in milliseconds, -1 if it hasn't been painted yet
+	 */
+	public static long getStartupTime() {
+		return firstPaint == 0 ? -1 : (firstPaint - mainStart) / 1_000_000;
+	}
+
+	// notes the first paint and prints the startup time if asked to
+	private static void framePainted() {
+		if (firstPaint != 0 || mainStart == 0)
+			return;
+		firstPaint = System.nanoTime();
+		if (Boolean.getBoolean(STARTUP_TIME_PROPERTY)) {
+			long vmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+			System.out.printf("first frame painted %d ms after main, %d ms after the JVM started%n", getStartupTime(),
+					System.currentTimeMillis() - vmStart);
 		}
 	}
 
@@ -64,16 +110,31 @@ public class Reversi {
 	 */
 	public Reversi() throws IOException {
 		frame = new JFrame();
-		session = new GameSession(this);
+		blankSpace = Assets.image("blank_space.png");
+		blackPiece = Assets.image("black_piece.png");
+		whitePiece = Assets.image("white_piece.png");
 
-		frame.setLayout(new BorderLayout());
+		frame.setContentPane(new JPanel(new BorderLayout()) {
+			@Override
+			public void paint(Graphics g) {
+				super.paint(g);
+				framePainted();
+			}
+		});
 
 		frame.setJMenuBar(createMenuBar());
 		sidePanel = createSidePanel();
 		frame.add(sidePanel, BorderLayout.EAST);
+		attach(new GameSession());
 
 		messageBar = new JLabel("Press Play to start");
-		frame.add(messageBar, BorderLayout.SOUTH);
+		thinkingBar = new JProgressBar();
+		thinkingBar.setIndeterminate(true);
+		thinkingBar.setVisible(false);
+		JPanel statusBar = new JPanel(new BorderLayout());
+		statusBar.add(messageBar, BorderLayout.CENTER);
+		statusBar.add(thinkingBar, BorderLayout.EAST);
+		frame.add(statusBar, BorderLayout.SOUTH);
 
 		frame.pack();
 		setFrameTitle();
@@ -81,6 +142,53 @@ public class Reversi {
 		frame.setSize(800, 600);
 		frame.setLocation(100, 50);
 		frame.setVisible(true);
+		// recovering a session can wait until the window is up
+		SwingUtilities.invokeLater(this::openJournal);
+	}
+
+	private JFileChooser fileChooser() {
+		if (fc == null)
+			fc = new JFileChooser(System.getProperty("user.dir"));
+		return fc;
+	}
+
+	// picks up the last session if the program stopped part way through it, then journals every move
+	private void openJournal() {
+		try {
+			journal = new MoveJournal(MoveJournal.defaultDirectory());
+			Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal));
+			session.setJournal(journal);
+			GameSession recovered = journal.recover();
+			if (recovered == null)
+				return;
+			session.cancel();
+			attach(recovered);
+			setComputerPlayers();
+			size = session.getGameSize();
+			play(false);
+			setFrameTitle();
+			if (session.getGame().isGameOver())
+				endOfGameEvent(session.getGame().findWinner());
+		} catch (IOException e) {
+			// carry on without one, the game just won't survive a crash
+			e.printStackTrace();
+		}
+	}
+
+	// makes a session the one shown, its events are handled on the event thread
+	private void attach(GameSession session) {
+		this.session = session;
+		session.setEventExecutor(SwingUtilities::invokeLater);
+		session.setListener(this);
+		session.setJournal(journal);
+	}
+
+	private void closeJournal() {
+		try {
+			journal.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	private JMenuBar createMenuBar() {
@@ -92,10 +200,11 @@ public class Reversi {
 		// save session
 		JMenuItem saveFile = new JMenuItem("Save Session");
 		saveFile.addActionListener(e -> {
-			int i = fc.showSaveDialog(frame);
+			JFileChooser chooser = fileChooser();
+			int i = chooser.showSaveDialog(frame);
 			if (i == JFileChooser.APPROVE_OPTION) {
 				try {
-					ReversiIO.saveSession(fc.getSelectedFile(), session);
+					ReversiIO.saveSession(chooser.getSelectedFile(), session);
 				} catch (IOException ex) {
 					JOptionPane.showMessageDialog(frame, "An Error has occured, could not save file", "Save File Error", JOptionPane.ERROR_MESSAGE);
 				}
@@ -104,7 +213,7 @@ public class Reversi {
 		// load session
 		JMenuItem loadFile = new JMenuItem("Load Session");
 		loadFile.addActionListener(e -> {
-			if (session.getBoard() != null) {
+			if (session.getGame() != null) {
 				// ask for confirmation
 				int i = JOptionPane.showConfirmDialog(frame,
 						"Are you sure you want to load a session, " + "this will delete the current session",
@@ -113,11 +222,14 @@ public class Reversi {
 					return;
 			}
 			//choose file
-			fc.showOpenDialog(frame);
+			JFileChooser chooser = fileChooser();
+			chooser.showOpenDialog(frame);
 			//create session from file
 			try {
-				session = ReversiIO.loadSession(fc.getSelectedFile());
-				session.setGui(this);
+				GameSession loaded = ReversiIO.loadSession(chooser.getSelectedFile());
+				session.cancel();
+				attach(loaded);
+				setComputerPlayers();
 				size = session.getGameSize();
 				play(false);
 				this.setFrameTitle();
@@ -145,8 +257,17 @@ public class Reversi {
 		JMenuItem resize = new JMenuItem("Change game size");
 		resize.addActionListener(e -> changeSizePrompt());
 
+		// computer players
+		blackComputer = new JCheckBoxMenuItem("Computer plays Black");
+		blackComputer.addActionListener(e -> setComputerPlayers());
+		whiteComputer = new JCheckBoxMenuItem("Computer plays White");
+		whiteComputer.addActionListener(e -> setComputerPlayers());
+
 		game.add(newSession);
 		game.add(resize);
+		game.addSeparator();
+		game.add(blackComputer);
+		game.add(whiteComputer);
 
 		// add menus to menu bar
 		menuBar.add(file);
@@ -276,7 +397,9 @@ public class Reversi {
 
 		gameBag = new JPanel();
 		gameBag.setLayout(new GridBagLayout());
-		gameBag.add(session.getBoard());
+		BoardView board = new BoardView(session.getGame(), blankSpace, blackPiece, whitePiece);
+		board.addSpaceListener(session::playMove);
+		gameBag.add(board);
 
 		frame.add(gameBag, BorderLayout.CENTER);
 		SwingUtilities.updateComponentTreeUI(frame);
@@ -293,7 +416,7 @@ public class Reversi {
 
 	
 	private void changeSizePrompt() {
-		if (session.getBoard() != null) {
+		if (session.getGame() != null) {
 			// check if they are sure
 			int input = JOptionPane.showConfirmDialog(frame,
 					"Changing the game size will reset the current game, are you sure you want to do this?",
@@ -317,7 +440,7 @@ public class Reversi {
 		if (isValidInput(inputSize)) {
 			size = Integer.parseInt(inputSize);
 			this.setFrameTitle();
-			if (session.getBoard() != null)
+			if (session.getGame() != null)
 				play(true);
 			// send error otherwise
 		} else {
@@ -337,7 +460,7 @@ public class Reversi {
 		if (gameBag == null)
 			return;
 		
-		if (session.getBoard() != null) {
+		if (session.getGame() != null) {
 			// ask for confirmation
 			int i = JOptionPane.showConfirmDialog(frame,
 					"Are you sure you want to start a new session, " + "this will delete the current session",
@@ -347,7 +470,11 @@ public class Reversi {
 		}
 		size = 8;
 		setFrameTitle();
-		session = new GameSession(this);
+		session.cancel();
+		attach(new GameSession());
+		if (journal != null)
+			journal.clear();
+		setComputerPlayers();
 		frame.remove(gameBag);
 		frame.remove(sidePanel);
 		sidePanel = createSidePanel();
@@ -356,6 +483,11 @@ public class Reversi {
 		SwingUtilities.updateComponentTreeUI(frame);
 	}
 
+	private void setComputerPlayers() {
+		session.setComputerPlayer('b', blackComputer.isSelected() ? new ComputerPlayer(COMPUTER_TIME_BUDGET) : null);
+		session.setComputerPlayer('w', whiteComputer.isSelected() ? new ComputerPlayer(COMPUTER_TIME_BUDGET) : null);
+	}
+
 	private void setFrameTitle() {
 		frame.setTitle("Reversi: " + size + "x" + size);
 	}
@@ -405,6 +537,15 @@ public class Reversi {
 		messageBar.setText(message);
 	}
 
+	/**
+	 * shows or hides the indicator that the game is working something out
+	 * 
+	 * @param thinking true to show it
+	 */
+	public void setThinking(boolean thinking) {
+		thinkingBar.setVisible(thinking);
+	}
+
 	/**
 	 * sets the black side's player name
 	 * 
@@ -442,4 +583,53 @@ public class Reversi {
 		playButton.setVisible(true);
 
 	}
+
+	@Override
+	public void namesChanged(String blackName, String whiteName) {
+		setBlackName(blackName);
+		setWhiteName(whiteName);
+	}
+
+	@Override
+	public void scoresChanged(int blackScore, int whiteScore) {
+		setBlackScore(blackScore);
+		setWhiteScore(whiteScore);
+	}
+
+	@Override
+	public void piecesChanged(int blackPieces, int whitePieces) {
+		setBlackPieces(blackPieces);
+		setWhitePieces(whitePieces);
+	}
+
+	@Override
+	public void turnStarted(String player) {
+		setMessageBar(player + "'s turn");
+	}
+
+	@Override
+	public void moveSearched(String player, int depth, long nodesPerSecond) {
+		setMessageBar(session.getGame().getCurrentPlayerStr() + "'s turn (" + player + " searched to depth " + depth
+				+ " at " + nodesPerSecond + " positions/s)");
+	}
+
+	@Override
+	public void invalidMove() {
+		setMessageBar("Invalid move");
+	}
+
+	@Override
+	public void passed(String player) {
+		alertNoTurn(player);
+	}
+
+	@Override
+	public void gameOver(String result) {
+		endOfGameEvent(result);
+	}
+
+	@Override
+	public void thinking(boolean thinking) {
+		setThinking(thinking);
+	}
 }
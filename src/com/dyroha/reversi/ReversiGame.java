@@ -2,6 +2,7 @@ package com.dyroha.reversi;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A basic game of reversi
@@ -10,14 +11,35 @@ import java.util.Arrays;
  * @author Dylan Hamilton
  */
 public class ReversiGame {
-	private char[][] board;
+	private Board board;
 	private int turnNumber;
 	private final char[] pieceColours = { 'b', 'w' };
-	private ArrayList<int[]> locations;
 	private char currentPlayerTurn;
 	private int size;
 	private int blackCount;
 	private int whiteCount;
+	// the spaces flipped by every move made so far, each encoded as y * size + x
+	private int[] flipped;
+	private int flippedTop;
+	// two ints per move made so far, the space placed (-1 for a pass) and how many pieces it flipped
+	private int[] history;
+	private int historyTop;
+	// Zobrist hash of the pieces and whose turn it is
+	private long hash;
+	// told the spaces each move changes, null until one is added
+	private List<ChangeListener> changeListeners;
+
+	/**
+	 * Something told which spaces change when a move is made or taken back
+	 */
+	public interface ChangeListener {
+		/**
+		 * called after a move is made or taken back, but not for a pass
+		 * @param spaces the spaces that changed as (y * size + x), the space placed first then the
+		 * pieces flipped
+		 */
+		void spacesChanged(int[] spaces);
+	}
 
 	/**
 	 * Creates a new ReversiGame
@@ -25,21 +47,19 @@ public class ReversiGame {
 	 */
 	public ReversiGame(int size) {
 		this.size = size;
-		board = new char[size][size];
+		board = createBoard(size);
+		flipped = new int[8 * size];
+		history = new int[64];
 		turnNumber = 0;
-		locations = new ArrayList<>();
 		currentPlayerTurn = 'b';
 
-		for (char[] row : board) {
-			Arrays.fill(row, '-');
-		}
-
 		int middle = size / 2;
-		board[middle - 1][middle - 1] = 'w';
-		board[middle - 1][middle] = 'b';
-		board[middle][middle - 1] = 'b';
-		board[middle][middle] = 'w';
+		board.setPiece(middle - 1, middle - 1, 'w');
+		board.setPiece(middle - 1, middle, 'b');
+		board.setPiece(middle, middle - 1, 'b');
+		board.setPiece(middle, middle, 'w');
 		countPieces();
+		hashBoard();
 	}
 
 	/**
@@ -50,10 +70,11 @@ public class ReversiGame {
 	 */
 	public ReversiGame(int turnNumber, int size, String boardStr) throws NumberFormatException {
 		this.size = size;
-		this.locations = new ArrayList<>();
 		this.turnNumber = turnNumber;
 		this.currentPlayerTurn = pieceColours[turnNumber % 2];
-		this.board = new char[size][size];
+		this.board = createBoard(size);
+		this.flipped = new int[8 * size];
+		this.history = new int[64];
 
 		String[] pieces = boardStr.split(",");
 		int count = 0;
@@ -61,11 +82,55 @@ public class ReversiGame {
 			char type = piece.substring(0, 1).toCharArray()[0];
 			int number = Integer.parseInt(piece.substring(1));
 			for (int i = 0; i < number; i++) {
-				board[count / size][count % size] = type;
+				board.setPiece(count / size, count % size, type);
 				count++;
 			}
 		}
 		countPieces();
+		hashBoard();
+	}
+
+	/**
+	 * Creates a ReversiGame from bitsets of its pieces
+	 * @param turnNumber the current turn number
+	 * @param size the size of the game board
+	 * @param black bitset of black's pieces, bit (y * size + x) for row y and collumn x
+	 * @param white bitset of white's pieces, with no bit set in both
+	 */
+	ReversiGame(int turnNumber, int size, long[] black, long[] white) {
+		this.size = size;
+		this.turnNumber = turnNumber;
+		this.currentPlayerTurn = pieceColours[turnNumber % 2];
+		this.board = createBoard(size);
+		this.flipped = new int[8 * size];
+		this.history = new int[64];
+
+		board.setPieces(black, white);
+		countPieces();
+		hashBoard();
+	}
+
+	/**
+	 * Creates a copy of a ReversiGame's board and turn, without its move history or listeners
+	 * @param game the game to copy
+	 */
+	public ReversiGame(ReversiGame game) {
+		this.size = game.size;
+		this.turnNumber = game.turnNumber;
+		this.currentPlayerTurn = game.currentPlayerTurn;
+		this.board = game.board.copy();
+		this.flipped = new int[8 * size];
+		this.history = new int[64];
+		this.blackCount = game.blackCount;
+		this.whiteCount = game.whiteCount;
+		this.hash = game.hash;
+	}
+
+	// the standard 8x8 game fits in a pair of longs, any other size uses packed planes
+	private static Board createBoard(int size) {
+		if (size == BitBoard.SIZE)
+			return new BitBoard();
+		return new WideBitBoard(size);
 	}
 
 	/**
@@ -74,7 +139,7 @@ public class ReversiGame {
 	public void printBoard() {
 		for (int y = 0; y < size; y++) {
 			for (int x = 0; x < size; x++) {
-				char disk = board[y][x];
+				char disk = board.getPiece(y, x);
 				System.out.print(disk + " ");
 			}
 			System.out.println();
@@ -89,7 +154,7 @@ public class ReversiGame {
 	 * @return the char representing the state of the space
 	 */
 	public char getBoardPiece(int y, int x) {
-		return board[y][x];
+		return board.getPiece(y, x);
 	}
 
 	/**
@@ -130,19 +195,74 @@ public class ReversiGame {
 		return whiteCount;
 	}
 
-	private void countPieces() {
-		int black = 0;
-		int white = 0;
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (board[j][i] == 'b')
-					black++;
-				else if (board[j][i] == 'w')
-					white++;
+	private void hashBoard() {
+		hash = currentPlayerTurn == 'w' ? Zobrist.WHITE_TO_MOVE : 0;
+		long[] black = new long[pieceWords()];
+		long[] white = new long[black.length];
+		board.getPieces(black, white);
+		for (int i = 0; i < black.length; i++) {
+			for (long pieces = black[i]; pieces != 0; pieces &= pieces - 1) {
+				hash ^= Zobrist.key((i << 6) + Long.numberOfTrailingZeros(pieces), 'b');
+			}
+			for (long pieces = white[i]; pieces != 0; pieces &= pieces - 1) {
+				hash ^= Zobrist.key((i << 6) + Long.numberOfTrailingZeros(pieces), 'w');
 			}
 		}
-		blackCount = black;
-		whiteCount = white;
+	}
+
+	/**
+	 * copies the pieces into a pair of bitsets, bit (y * size + x) of each being the space at row
+	 * y and collumn x
+	 * @param black bitset for black's pieces, (size * size + 63) / 64 longs
+	 * @param white bitset for white's pieces, the same length
+	 */
+	void getPieces(long[] black, long[] white) {
+		board.getPieces(black, white);
+	}
+
+	/**
+	 * gets the length of the bitsets getPieces fills
+	 * @return the number of longs
+	 */
+	int pieceWords() {
+		return (size * size + 63) >>> 6;
+	}
+
+	// XORs a move in or out of the hash, both the placed piece and every flipped piece
+	private void hashMove(char player, int space, int from, int flips) {
+		char opponent = player == 'b' ? 'w' : 'b';
+		hash ^= Zobrist.key(space, player);
+		for (int i = from; i < from + flips; i++) {
+			hash ^= Zobrist.key(flipped[i], player) ^ Zobrist.key(flipped[i], opponent);
+		}
+	}
+
+	/**
+	 * gets a hash of the position, the pieces on the board and whose turn it is. It is kept up to
+	 * date as moves are made and taken back
+	 * @return the Zobrist hash of the position
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	private void countPieces() {
+		blackCount = board.count('b');
+		whiteCount = board.count('w');
+	}
+
+	// placing a piece adds it and moves each flipped piece from one player's count to the other's,
+	// taking it back (change -1) does the reverse
+	private void updateCounts(char player, int flips, int change) {
+		if (player == 'b') {
+			blackCount += change * (flips + 1);
+			whiteCount -= change * flips;
+		} else {
+			whiteCount += change * (flips + 1);
+			blackCount -= change * flips;
+		}
+		assert blackCount == board.count('b') && whiteCount == board.count('w')
+				: "piece counts out of step with the board";
 	}
 
 	/**
@@ -151,16 +271,26 @@ public class ReversiGame {
 	 * @return true if the player can go, otherwise false
 	 */
 	public boolean testForValidTurn(char player) {
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				validPlaceCheck(j, i, player);
-				if (!locations.isEmpty()) {
-					locations.clear();
-					return true;
-				}
-			}
-		}
-		return false;
+		return board.hasValidMove(player);
+	}
+
+	/**
+	 * counts the spaces said player could place a piece
+	 * @param player the player ('b' or 'w')
+	 * @return the number of valid moves
+	 */
+	public int countValidMoves(char player) {
+		return board.countValidMoves(player);
+	}
+
+	/**
+	 * lists the spaces said player could place a piece, each written as (y * size + x)
+	 * @param player the player ('b' or 'w')
+	 * @param moves buffer for the moves, at least size * size long
+	 * @return the number of valid moves written to moves
+	 */
+	public int getValidMoves(char player, int[] moves) {
+		return board.getValidMoves(player, moves);
 	}
 
 	/**
@@ -171,14 +301,7 @@ public class ReversiGame {
 	 */
 	public boolean placePiece(int y, int x) {
 		try {
-			validPlaceCheck(y, x, currentPlayerTurn);
-			if (!locations.isEmpty()) {
-				flipFromList();
-				board[y][x] = currentPlayerTurn;
-				nextTurn();
-				countPieces();
-				return true;
-			}
+			return makeMove(y, x);
 		} catch (ArrayIndexOutOfBoundsException e) {
 			e.printStackTrace();
 		}
@@ -190,99 +313,143 @@ public class ReversiGame {
 	 * skips the current player's turn
 	 */
 	public void nextTurn() {
-		turnNumber++;
-		currentPlayerTurn = pieceColours[turnNumber % 2];
+		makePass();
 	}
 
-	private void validPlaceCheck(int y, int x, char colour) {
-		if (board[y][x] != '-')
-			return;
-		for (Direction dir : Direction.values()) {
-			checkDirection(y, x, dir, colour);
-		}
+	/**
+	 * places a piece for the current player if it is a valid move, the move can be taken back with
+	 * unmakeMove. Only the flipped spaces are remembered so searching through moves does not need
+	 * a new game per position
+	 * @param y y position (row) of the space
+	 * @param x x position (collumn) of the space
+	 * @return true if the piece was placed, false if it was an invalid move
+	 * @throws ArrayIndexOutOfBoundsException if the space is not on the board
+	 */
+	public boolean makeMove(int y, int x) {
+		if (flipped.length - flippedTop < 8 * size)
+			flipped = Arrays.copyOf(flipped, 2 * flipped.length);
+		int flips = board.place(y, x, currentPlayerTurn, flipped, flippedTop);
+		if (flips == 0)
+			return false;
+		updateCounts(currentPlayerTurn, flips, 1);
+		hashMove(currentPlayerTurn, y * size + x, flippedTop, flips);
+		flippedTop += flips;
+		pushHistory(y * size + x, flips);
+		if (changeListeners != null)
+			fireSpacesChanged(y * size + x, flippedTop - flips, flips);
+		return true;
 	}
 
-	private boolean checkDirection(int y, int x, Direction direction, char colour) {
-		int[] start = { y, x };
-		int[] end = { y, x };
-		movePosition(end, direction);
+	/**
+	 * passes the current player's turn, the pass can be taken back with unmakeMove
+	 */
+	public void makePass() {
+		pushHistory(-1, 0);
+	}
 
-		if (!(end[0] >= 0 && end[0] < size && end[1] >= 0 && end[1] < size))
+	/**
+	 * takes back the last move or pass, putting the flipped pieces, turn and piece counts back
+	 * @return true if a move was taken back, false if there are none to take back
+	 */
+	public boolean unmakeMove() {
+		if (historyTop == 0)
 			return false;
-		char nextPiece = board[end[0]][end[1]];
+		historyTop -= 2;
+		int space = history[historyTop];
+		int flips = history[historyTop + 1];
+		turnNumber--;
+		currentPlayerTurn = pieceColours[turnNumber % 2];
+		hash ^= Zobrist.WHITE_TO_MOVE;
+		if (space >= 0) {
+			flippedTop -= flips;
+			board.unplace(space / size, space % size, currentPlayerTurn, flipped, flippedTop, flips);
+			updateCounts(currentPlayerTurn, flips, -1);
+			hashMove(currentPlayerTurn, space, flippedTop, flips);
+			if (changeListeners != null)
+				fireSpacesChanged(space, flippedTop, flips);
+		}
+		return true;
+	}
 
-		// check if next piece is invalid
-		if (nextPiece == '-' || nextPiece == colour)
-			return false;
+	/**
+	 * adds a listener told the spaces changed by every move made or taken back. Listeners are not
+	 * copied with the game, so searching a copy tells them nothing
+	 * @param listener the listener
+	 */
+	public void addChangeListener(ChangeListener listener) {
+		if (changeListeners == null)
+			changeListeners = new ArrayList<>();
+		changeListeners.add(listener);
+	}
 
-		// count till reaches own colour or triggers exception
-		while (true) {
-			movePosition(end, direction);
-			// is within bounds
-			if (!(end[0] >= 0 && end[0] < size && end[1] >= 0 && end[1] < size))
-				return false;
-			// doesn't end in null
-			if (board[end[0]][end[1]] == '-')
-				return false;
-
-			if (board[end[0]][end[1]] == colour) {
-				break;
-			}
-		}
+	/**
+	 * removes a listener added by addChangeListener
+	 * @param listener the listener
+	 */
+	public void removeChangeListener(ChangeListener listener) {
+		if (changeListeners != null)
+			changeListeners.remove(listener);
+	}
 
-		// do flips
-		movePosition(start, direction);
-		while (start != end) {
-			if (board[start[0]][start[1]] == colour)
-				return true;
-			locations.add(new int[] { start[0], start[1] });
-			movePosition(start, direction);
+	private void fireSpacesChanged(int space, int from, int flips) {
+		int[] spaces = new int[flips + 1];
+		spaces[0] = space;
+		System.arraycopy(flipped, from, spaces, 1, flips);
+		for (ChangeListener listener : new ArrayList<>(changeListeners)) {
+			listener.spacesChanged(spaces);
 		}
-		return true;
 	}
 
-	private int[] movePosition(int[] pos, Direction direction) {
-		switch (direction) {
-		case UPLEFT:
-			pos[0]--;
-			pos[1]--;
-			break;
-		case UP:
-			pos[0]--;
-			break;
-		case UPRIGHT:
-			pos[0]--;
-			pos[1]++;
-			break;
-		case LEFT:
-			pos[1]--;
-			break;
-		case RIGHT:
-			pos[1]++;
-			break;
-		case DOWNLEFT:
-			pos[0]++;
-			pos[1]--;
-			break;
-		case DOWN:
-			pos[0]++;
-			break;
-		case DOWNRIGHT:
-			pos[0]++;
-			pos[1]++;
-			break;
-		}
-		return pos;
+	private void pushHistory(int space, int flips) {
+		if (historyTop == history.length)
+			history = Arrays.copyOf(history, 2 * history.length);
+		history[historyTop++] = space;
+		history[historyTop++] = flips;
+		turnNumber++;
+		currentPlayerTurn = pieceColours[turnNumber % 2];
+		hash ^= Zobrist.WHITE_TO_MOVE;
 	}
 
-	private void flipFromList() {
-		locations.forEach(l -> {
-			if (board[l[0]][l[1]] == 'b')
-				board[l[0]][l[1]] = 'w';
-			else if (board[l[0]][l[1]] == 'w')
-				board[l[0]][l[1]] = 'b';
-		});
-		locations.clear();
+	/**
+	 * gets the number of moves and passes made since the game was created, loaded or copied
+	 * @return the number of moves, passes included
+	 */
+	public int getMoveCount() {
+		return historyTop / 2;
+	}
+
+	/**
+	 * gets one of the moves made since the game was created, loaded or copied
+	 * @param index the move, 0 for the first
+	 * @return the space placed as (y * size + x), -1 for a pass
+	 * @throws IndexOutOfBoundsException if there is no such move
+	 */
+	public int getMove(int index) {
+		if (index < 0 || index >= historyTop / 2)
+			throw new IndexOutOfBoundsException("Move " + index + " of " + historyTop / 2);
+		return history[2 * index];
+	}
+
+	/**
+	 * creates a copy of the game as it was before the moves it remembers, so replaying getMove
+	 * from 0 to getMoveCount on the copy gets back to this game
+	 * @return the starting position, without move history
+	 */
+	public ReversiGame getStartingPosition() {
+		// built from the pieces rather than copied so the board rebuilds its valid moves once at the
+		// end instead of updating them for every move taken back
+		long[] black = new long[pieceWords()];
+		long[] white = new long[black.length];
+		board.getPieces(black, white);
+		ReversiGame start = new ReversiGame(turnNumber, size, black, white);
+		start.flipped = Arrays.copyOf(flipped, flipped.length);
+		start.flippedTop = flippedTop;
+		start.history = Arrays.copyOf(history, history.length);
+		start.historyTop = historyTop;
+		while (start.unmakeMove()) {
+			// taking back every move leaves the start
+		}
+		return start;
 	}
 
 	/**
@@ -301,6 +468,14 @@ public class ReversiGame {
 		return currentPlayerTurn == 'b' ? "Black" : "White";
 	}
 
+	/**
+	 * gets the turn number, the number of moves and passes made since the start of the game
+	 * @return the turn number
+	 */
+	public int getTurnNumber() {
+		return turnNumber;
+	}
+
 	/**
 	 * gets the size of the board
 	 * @return height/width of the board
@@ -318,9 +493,10 @@ public class ReversiGame {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		int count = 0;
-		char type = board[0][0];
-		for (char[] diskRow : board) {
-			for (char disk : diskRow) {
+		char type = board.getPiece(0, 0);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				char disk = board.getPiece(y, x);
 				if (disk == type)
 					count++;
 				else {
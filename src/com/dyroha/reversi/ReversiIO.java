@@ -3,15 +3,37 @@ package com.dyroha.reversi;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
 
 /**
  * File Save and load for a GameSession
- * 
+ * <p>
+ * Sessions are saved in a binary format: the magic number "RVSS", a version byte, both player
+ * names (varint length then UTF-8), both scores, then the game. A game is the turn number and size
+ * of its starting position, that position packed 2 bits per space row by row (0 empty, 1 black,
+ * 2 white, 4 spaces to a byte, first space in the low bits), then the number of moves made since
+ * and each move as a varint of (y * size + x) + 1, 0 for a pass. Loading replays the moves so the
+ * game keeps its move history. A session can also be written without its history, as the current
+ * position and no moves, which loads without replaying anything. Files in the older ";" separated
+ * text format still load
+ *
  * @version 23/04/2021
  * @author Dylan Hamilton
  */
 public class ReversiIO {
+	/**
+	 * the first four bytes of a binary session file, "RVSS"
+	 */
+	static final int MAGIC = 0x52565353;
+	static final int VERSION = 1;
+	// the most bytes a varint of an int takes
+	private static final int MAX_VARINT_BYTES = 5;
+
 	// private constructor to hide the public super one
 	private ReversiIO() {}
 
@@ -19,21 +41,112 @@ public class ReversiIO {
 	 * Save a GameSession to a given file
 	 * @param gameFile the file for which to save the session to
 	 * @param session the session to save to file
-	 * @throws IOException if the file cannot be found
+	 * @throws IOException if the file cannot be found, or the session has no game
 	 */
 	public static void saveSession(File gameFile, GameSession session) throws IOException {
+		ByteBuffer buffer = encodeSession(session);
+		try (FileChannel channel = FileChannel.open(gameFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * encodes a GameSession in the binary format, with its game's move history
+	 * @param session the session
+	 * @return a buffer holding the encoded session, ready to be read
+	 * @throws IOException if the session has no game
+	 */
+	static ByteBuffer encodeSession(GameSession session) throws IOException {
+		return encodeSession(session, true);
+	}
+
+	/**
+	 * encodes a GameSession in the binary format
+	 * @param session the session
+	 * @param history true to write the game's starting position and moves, false to write just the
+	 * current position so decoding it replays nothing
+	 * @return a buffer holding the encoded session, ready to be read
+	 * @throws IOException if the session has no game
+	 */
+	static ByteBuffer encodeSession(GameSession session, boolean history) throws IOException {
+		ReversiGame game = session.getGame();
+		if (game == null)
+			throw new IOException("There is no game to save");
+		byte[] blackName = String.valueOf(session.getBlackName()).getBytes(StandardCharsets.UTF_8);
+		byte[] whiteName = String.valueOf(session.getWhiteName()).getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(5 + 2 * MAX_VARINT_BYTES + blackName.length + whiteName.length + 8
+				+ gameBytes(game, history));
+		buffer.putInt(MAGIC).put((byte) VERSION);
+		putVarint(buffer, blackName.length);
+		buffer.put(blackName);
+		putVarint(buffer, whiteName.length);
+		buffer.put(whiteName);
+		buffer.putInt(session.getBlackScore()).putInt(session.getWhiteScore());
+		writeGame(buffer, game, history);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Save a GameSession to a given file in the older text format, without the move history
+	 * @param gameFile the file for which to save the session to
+	 * @param session the session to save to file
+	 * @throws IOException if the file cannot be found
+	 */
+	public static void saveTextSession(File gameFile, GameSession session) throws IOException {
 		try (FileWriter fw = new FileWriter(gameFile)) {
 			fw.write(session.getFileFormattedString());
 		}
 	}
 
 	/**
-	 * Load a GameSession from a file
+	 * Load a GameSession from a file, in either the binary or the text format
 	 * @param gameFile the file to load the game from
 	 * @return the loaded GameSession object
 	 * @throws IOException if the file cannot be found or read propperly, or if the GameSession couln't load the pieces
 	 */
 	public static GameSession loadSession(File gameFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(gameFile.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Session file is too large: " + gameFile);
+			ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// read until the buffer is full
+			}
+			buffer.flip();
+			if (buffer.remaining() >= 4 && buffer.getInt(0) == MAGIC)
+				return decodeSession(buffer);
+		}
+		return loadTextSession(gameFile);
+	}
+
+	/**
+	 * decodes a GameSession encoded in the binary format
+	 * @param buffer the encoded session
+	 * @return the session
+	 * @throws IOException if the buffer does not hold a valid session
+	 */
+	static GameSession decodeSession(ByteBuffer buffer) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("Not a session");
+			int version = buffer.get();
+			if (version != VERSION)
+				throw new IOException("Unsupported session version " + version);
+			String blackName = getString(buffer);
+			String whiteName = getString(buffer);
+			int blackScore = buffer.getInt();
+			int whiteScore = buffer.getInt();
+			return new GameSession(blackName, whiteName, blackScore, whiteScore, readGame(buffer));
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Session file is truncated", e);
+		}
+	}
+
+	private static GameSession loadTextSession(File gameFile) throws IOException {
 		try (Scanner sc = new Scanner(gameFile).useDelimiter(";")) {
 			String blackName = sc.next();
 			int blackScore = sc.nextInt();
@@ -47,4 +160,150 @@ public class ReversiIO {
 					new ReversiGame(turnNumber, size, boardString));
 		}
 	}
+
+	/**
+	 * gets the most bytes writeGame can write for a game
+	 * @param game the game
+	 * @param history true if the moves are written
+	 * @return the number of bytes
+	 */
+	static int gameBytes(ReversiGame game, boolean history) {
+		int size = game.getSize();
+		return 8 + (size * size + 3) / 4 + MAX_VARINT_BYTES * ((history ? game.getMoveCount() : 0) + 1);
+	}
+
+	/**
+	 * writes a game, its starting position and the moves made since, or its current position and
+	 * no moves
+	 * @param buffer where to write, with at least gameBytes space left
+	 * @param game the game
+	 * @param history true to write the starting position and moves
+	 */
+	static void writeGame(ByteBuffer buffer, ReversiGame game, boolean history) {
+		ReversiGame start = history ? game.getStartingPosition() : game;
+		int size = game.getSize();
+		buffer.putInt(start.getTurnNumber()).putInt(size);
+		long[] black = new long[start.pieceWords()];
+		long[] white = new long[black.length];
+		start.getPieces(black, white);
+		// 32 spaces at a time, black's bits in the low bit of each pair and white's in the high
+		int bytes = (size * size + 3) / 4;
+		for (int i = 0; i < bytes; i += 8) {
+			int word = i >>> 4;
+			int shift = (i & 8) << 2;
+			long packed = spread(black[word] >>> shift) | spread(white[word] >>> shift) << 1;
+			if (bytes - i >= 8) {
+				buffer.putLong(Long.reverseBytes(packed));
+			} else {
+				for (int j = 0; i + j < bytes; j++) {
+					buffer.put((byte) (packed >>> 8 * j));
+				}
+			}
+		}
+		int moves = history ? game.getMoveCount() : 0;
+		putVarint(buffer, moves);
+		for (int i = 0; i < moves; i++) {
+			putVarint(buffer, game.getMove(i) + 1);
+		}
+	}
+
+	/**
+	 * reads a game written by writeGame, replaying its moves
+	 * @param buffer where to read from
+	 * @return the game
+	 * @throws IOException if the game is not valid
+	 * @throws BufferUnderflowException if the buffer ends part way through the game
+	 */
+	static ReversiGame readGame(ByteBuffer buffer) throws IOException {
+		int turnNumber = buffer.getInt();
+		int size = buffer.getInt();
+		if (turnNumber < 0 || size < 2 || size > (1 << 15))
+			throw new IOException("Invalid game, turn " + turnNumber + " size " + size);
+		int spaces = size * size;
+		long[] black = new long[(spaces + 63) >>> 6];
+		long[] white = new long[black.length];
+		int bytes = (spaces + 3) / 4;
+		for (int i = 0; i < bytes; i += 8) {
+			long packed = 0;
+			if (bytes - i >= 8) {
+				packed = Long.reverseBytes(buffer.getLong());
+			} else {
+				for (int j = 0; i + j < bytes; j++) {
+					packed |= (buffer.get() & 0xffL) << 8 * j;
+				}
+			}
+			long blackBits = compact(packed);
+			long whiteBits = compact(packed >>> 1);
+			if ((blackBits & whiteBits) != 0)
+				throw new IOException("Invalid piece near space " + 4 * i);
+			int word = i >>> 4;
+			int shift = (i & 8) << 2;
+			black[word] |= blackBits << shift;
+			white[word] |= whiteBits << shift;
+		}
+		// anything packed after the last space is padding
+		if ((spaces & 63) != 0) {
+			long last = (1L << spaces) - 1;
+			black[black.length - 1] &= last;
+			white[white.length - 1] &= last;
+		}
+		ReversiGame game = new ReversiGame(turnNumber, size, black, white);
+		int moves = getVarint(buffer);
+		for (int i = 0; i < moves; i++) {
+			int move = getVarint(buffer) - 1;
+			if (move < 0)
+				game.makePass();
+			else if (move >= spaces || !game.makeMove(move / size, move % size))
+				throw new IOException("Invalid move " + move + " at move " + i);
+		}
+		return game;
+	}
+
+	// spreads the low 32 bits of bits out to every other bit
+	private static long spread(long bits) {
+		bits &= 0xffffffffL;
+		bits = (bits | bits << 16) & 0x0000ffff0000ffffL;
+		bits = (bits | bits << 8) & 0x00ff00ff00ff00ffL;
+		bits = (bits | bits << 4) & 0x0f0f0f0f0f0f0f0fL;
+		bits = (bits | bits << 2) & 0x3333333333333333L;
+		return (bits | bits << 1) & 0x5555555555555555L;
+	}
+
+	// gathers every other bit, starting with the lowest, into the low 32 bits
+	private static long compact(long bits) {
+		bits &= 0x5555555555555555L;
+		bits = (bits | bits >>> 1) & 0x3333333333333333L;
+		bits = (bits | bits >>> 2) & 0x0f0f0f0f0f0f0f0fL;
+		bits = (bits | bits >>> 4) & 0x00ff00ff00ff00ffL;
+		bits = (bits | bits >>> 8) & 0x0000ffff0000ffffL;
+		return (bits | bits >>> 16) & 0xffffffffL;
+	}
+
+	private static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7f) != 0) {
+			buffer.put((byte) (value & 0x7f | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static int getVarint(ByteBuffer buffer) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("Invalid varint");
+	}
+
+	private static String getString(ByteBuffer buffer) throws IOException {
+		int length = getVarint(buffer);
+		if (length < 0 || length > buffer.remaining())
+			throw new IOException("Invalid name length " + length);
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
 }
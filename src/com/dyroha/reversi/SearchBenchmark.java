@@ -0,0 +1,80 @@
+package com.dyroha.reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the ComputerPlayer search speeds up with more threads. A fixed set of 8x8
+ * positions, made by seeded random play, is searched to a fixed depth with each thread count and
+ * the total time compared against a single thread
+ * <p>
+ * Usage: SearchBenchmark [depth] [max threads]
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class SearchBenchmark {
+	private static final int POSITIONS = 12;
+	private static final long SEED = 20210421L;
+	private static final int TABLE_MEGABYTES = 64;
+
+	// private constructor to hide the public super one
+	private SearchBenchmark() {}
+
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		List<ReversiGame> positions = createPositions();
+		TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+
+		System.out.println("threads\ttime (ms)\tpositions/s\tspeedup");
+		double singleThreaded = 0;
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			ComputerPlayer computer = new ComputerPlayer(Long.MAX_VALUE, table, threads);
+			computer.setMaxDepth(depth);
+			long time = 0;
+			long nodes = 0;
+			for (ReversiGame position : positions) {
+				table.clear();
+				computer.chooseMove(position);
+				time += computer.getElapsed();
+				nodes += computer.getNodes();
+			}
+			computer.shutdown();
+			if (threads == 1)
+				singleThreaded = time;
+			System.out.printf("%d\t%d\t%d\t%.2f%n", threads, time / 1_000_000, nodes * 1_000_000_000L / time,
+					singleThreaded / time);
+			// always finish on the machine's core count
+			if (threads < maxThreads && threads * 2 > maxThreads)
+				threads = maxThreads / 2;
+		}
+	}
+
+	/**
+	 * plays seeded random moves from the start to make the benchmark positions
+	 * @return the positions, the same every run
+	 */
+	static List<ReversiGame> createPositions() {
+		Random random = new Random(SEED);
+		List<ReversiGame> positions = new ArrayList<>();
+		int[] moves = new int[64];
+		while (positions.size() < POSITIONS) {
+			ReversiGame game = new ReversiGame(8);
+			int plies = 10 + positions.size() * 2;
+			for (int i = 0; i < plies && !game.isGameOver(); i++) {
+				int count = game.getValidMoves(game.getCurrentPlayerChar(), moves);
+				if (count == 0) {
+					game.nextTurn();
+				} else {
+					int move = moves[random.nextInt(count)];
+					game.placePiece(move / 8, move % 8);
+				}
+			}
+			if (!game.isGameOver() && game.testForValidTurn(game.getCurrentPlayerChar()))
+				positions.add(new ReversiGame(game));
+		}
+		return positions;
+	}
+}
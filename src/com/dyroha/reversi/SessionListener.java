@@ -0,0 +1,69 @@
+package com.dyroha.reversi;
+
+/**
+ * Something told what happens in a GameSession, such as a window showing it. Every method does
+ * nothing unless overridden, so a listener only needs the events it cares about. Events come on
+ * the thread the session's event executor runs things on
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public interface SessionListener {
+	/**
+	 * called when the players' names are set
+	 * @param blackName black's name
+	 * @param whiteName white's name
+	 */
+	default void namesChanged(String blackName, String whiteName) {}
+
+	/**
+	 * called when the scores from finished games change
+	 * @param blackScore black's score
+	 * @param whiteScore white's score
+	 */
+	default void scoresChanged(int blackScore, int whiteScore) {}
+
+	/**
+	 * called when the number of pieces on the board may have changed
+	 * @param blackPieces black's pieces
+	 * @param whitePieces white's pieces
+	 */
+	default void piecesChanged(int blackPieces, int whitePieces) {}
+
+	/**
+	 * called when it becomes a player's turn
+	 * @param player the player's name, "Black" or "White"
+	 */
+	default void turnStarted(String player) {}
+
+	/**
+	 * called after a computer player's move, once the next turn has started
+	 * @param player the computer's side, "Black" or "White"
+	 * @param depth the depth searched to
+	 * @param nodesPerSecond the positions searched a second
+	 */
+	default void moveSearched(String player, int depth, long nodesPerSecond) {}
+
+	/**
+	 * called when a person tries a move that isn't valid
+	 */
+	default void invalidMove() {}
+
+	/**
+	 * called when a player has no valid moves and has to pass
+	 * @param player the player's name, "Black" or "White"
+	 */
+	default void passed(String player) {}
+
+	/**
+	 * called when the game ends
+	 * @param result who won, such as "Black wins with 40 points"
+	 */
+	default void gameOver(String result) {}
+
+	/**
+	 * called when work on a turn has gone on longer than a frame, and again when it finishes
+	 * @param thinking true while the work goes on
+	 */
+	default void thinking(boolean thinking) {}
+}
@@ -0,0 +1,51 @@
+package com.dyroha.reversi;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Scaled copies of the piece images used to draw a BoardView. Every space on a board is the same
+ * size, so each image only needs scaling once per size rather than once per paint. The cache
+ * holds the images for one size at a time and is emptied when the size changes, such as when the
+ * window is resized
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class SpriteCache {
+	private static final Map<BufferedImage, BufferedImage> scaled = new IdentityHashMap<>();
+	private static int width;
+	private static int height;
+
+	// private constructor to hide the public super one
+	private SpriteCache() {}
+
+	/**
+	 * gets an image scaled smoothly to a size, scaling it only the first time it is asked for at
+	 * this size
+	 * @param image the image
+	 * @param width the width to scale to
+	 * @param height the height to scale to
+	 * @return the scaled image
+	 */
+	static synchronized BufferedImage get(BufferedImage image, int width, int height) {
+		if (width != SpriteCache.width || height != SpriteCache.height) {
+			scaled.clear();
+			SpriteCache.width = width;
+			SpriteCache.height = height;
+		}
+		BufferedImage sprite = scaled.get(image);
+		if (sprite == null) {
+			sprite = new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = sprite.createGraphics();
+			// a BufferedImage's scaled instance is made straight away, so it is drawn in full here
+			g.drawImage(image.getScaledInstance(sprite.getWidth(), sprite.getHeight(), Image.SCALE_SMOOTH), 0, 0, null);
+			g.dispose();
+			scaled.put(image, sprite);
+		}
+		return sprite;
+	}
+}
@@ -0,0 +1,216 @@
+package com.dyroha.reversi;
+
+import java.util.Arrays;
+
+/**
+ * The 8 symmetries of a square board (rotations and reflections), used to give positions that are
+ * the same up to symmetry one canonical hash. Symmetry k transposes the board if bit 4 is set,
+ * then flips it top to bottom if bit 1 is set and left to right if bit 2 is set; 0 leaves it as is
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public final class Symmetry {
+	/**
+	 * the number of symmetries of a square board
+	 */
+	public static final int COUNT = 8;
+
+	// boards up to this size have their keys for every symmetry worked out once, 512KB at most
+	private static final int KEY_TABLE_SIZE = 64;
+	private static volatile long[] keyTable;
+
+	/**
+	 * A position's canonical hash and the symmetry that gives it
+	 */
+	public static final class Canonical {
+		private final long hash;
+		private final int symmetry;
+
+		private Canonical(long hash, int symmetry) {
+			this.hash = hash;
+			this.symmetry = symmetry;
+		}
+
+		/**
+		 * gets the canonical hash, the same for every rotation and reflection of the position
+		 * @return the smallest hash over the 8 symmetries
+		 */
+		public long getHash() {
+			return hash;
+		}
+
+		/**
+		 * gets the symmetry that turns the position into its canonical one
+		 * @return 0 to 7
+		 */
+		public int getSymmetry() {
+			return symmetry;
+		}
+	}
+
+	// private constructor to hide the public super one
+	private Symmetry() {}
+
+	/**
+	 * moves a space by a symmetry
+	 * @param space the space as (y * size + x)
+	 * @param size the size of the board
+	 * @param symmetry 0 to 7
+	 * @return the space it moves to as (y * size + x)
+	 */
+	public static int transform(int space, int size, int symmetry) {
+		int y = space / size;
+		int x = space % size;
+		if ((symmetry & 4) != 0) {
+			int t = y;
+			y = x;
+			x = t;
+		}
+		if ((symmetry & 1) != 0)
+			y = size - 1 - y;
+		if ((symmetry & 2) != 0)
+			x = size - 1 - x;
+		return y * size + x;
+	}
+
+	/**
+	 * moves a space back by a symmetry, undoing transform
+	 * @param space the space as (y * size + x)
+	 * @param size the size of the board
+	 * @param symmetry 0 to 7
+	 * @return the space it came from as (y * size + x)
+	 */
+	public static int inverse(int space, int size, int symmetry) {
+		int y = space / size;
+		int x = space % size;
+		if ((symmetry & 1) != 0)
+			y = size - 1 - y;
+		if ((symmetry & 2) != 0)
+			x = size - 1 - x;
+		if ((symmetry & 4) != 0) {
+			int t = y;
+			y = x;
+			x = t;
+		}
+		return y * size + x;
+	}
+
+	/**
+	 * hashes a game's position as seen through a symmetry, symmetry 0 gives the game's own hash
+	 * @param game the game
+	 * @param symmetry 0 to 7
+	 * @return the Zobrist hash of the transformed position
+	 */
+	public static long hash(ReversiGame game, int symmetry) {
+		int size = game.getSize();
+		long[] black = new long[game.pieceWords()];
+		long[] white = new long[black.length];
+		game.getPieces(black, white);
+		long hash = game.getCurrentPlayerChar() == 'w' ? Zobrist.WHITE_TO_MOVE : 0;
+		for (int i = 0; i < black.length; i++) {
+			for (long pieces = black[i]; pieces != 0; pieces &= pieces - 1) {
+				hash ^= Zobrist.key(transform(64 * i + Long.numberOfTrailingZeros(pieces), size, symmetry), 'b');
+			}
+			for (long pieces = white[i]; pieces != 0; pieces &= pieces - 1) {
+				hash ^= Zobrist.key(transform(64 * i + Long.numberOfTrailingZeros(pieces), size, symmetry), 'w');
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * finds the symmetry giving a game's position its canonical (smallest) hash
+	 * @param game the game
+	 * @return 0 to 7
+	 */
+	public static int canonicalSymmetry(ReversiGame game) {
+		return canonical(game).getSymmetry();
+	}
+
+	/**
+	 * finds a game's canonical hash and the symmetry giving it, hashing the position once for both
+	 * @param game the game
+	 * @return the hash and symmetry
+	 */
+	public static Canonical canonical(ReversiGame game) {
+		long[] hashes = hashes(game);
+		int best = 0;
+		for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+			if (hashes[symmetry] < hashes[best])
+				best = symmetry;
+		}
+		return new Canonical(hashes[best], best);
+	}
+
+	/**
+	 * hashes a game's position so that every rotation and reflection of it hashes the same
+	 * @param game the game
+	 * @return the smallest hash over the 8 symmetries
+	 */
+	public static long canonicalHash(ReversiGame game) {
+		long[] hashes = hashes(game);
+		long best = hashes[0];
+		for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+			best = Math.min(best, hashes[symmetry]);
+		}
+		return best;
+	}
+
+	// hashes the position through every symmetry at once, visiting only the spaces with pieces
+	private static long[] hashes(ReversiGame game) {
+		int size = game.getSize();
+		long[] black = new long[game.pieceWords()];
+		long[] white = new long[black.length];
+		game.getPieces(black, white);
+		long[] hashes = new long[COUNT];
+		Arrays.fill(hashes, game.getCurrentPlayerChar() == 'w' ? Zobrist.WHITE_TO_MOVE : 0);
+		long[] keys = keys(size);
+		for (int i = 0; i < black.length; i++) {
+			for (long pieces = black[i]; pieces != 0; pieces &= pieces - 1) {
+				addPiece(hashes, keys, 64 * i + Long.numberOfTrailingZeros(pieces), size, 'b');
+			}
+			for (long pieces = white[i]; pieces != 0; pieces &= pieces - 1) {
+				addPiece(hashes, keys, 64 * i + Long.numberOfTrailingZeros(pieces), size, 'w');
+			}
+		}
+		return hashes;
+	}
+
+	private static void addPiece(long[] hashes, long[] keys, int space, int size, char colour) {
+		if (keys == null) {
+			for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+				hashes[symmetry] ^= Zobrist.key(transform(space, size, symmetry), colour);
+			}
+		} else {
+			int key = (2 * space + (colour == 'b' ? 0 : 1)) * COUNT;
+			for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+				hashes[symmetry] ^= keys[key + symmetry];
+			}
+		}
+	}
+
+	/**
+	 * gets the Zobrist key of every piece on every space through every symmetry, indexed by
+	 * ((2 * space + colour) * COUNT + symmetry) with colour 0 for black. Only the last size asked
+	 * for is kept
+	 * @return the keys, null if the board is larger than KEY_TABLE_SIZE
+	 */
+	private static long[] keys(int size) {
+		if (size > KEY_TABLE_SIZE)
+			return null;
+		long[] keys = keyTable;
+		if (keys != null && keys.length == 2 * size * size * COUNT)
+			return keys;
+		keys = new long[2 * size * size * COUNT];
+		for (int space = 0; space < size * size; space++) {
+			for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+				int transformed = transform(space, size, symmetry);
+				keys[2 * space * COUNT + symmetry] = Zobrist.key(transformed, 'b');
+				keys[(2 * space + 1) * COUNT + symmetry] = Zobrist.key(transformed, 'w');
+			}
+		}
+		keyTable = keys;
+		return keys;
+	}
+}
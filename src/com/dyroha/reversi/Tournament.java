@@ -0,0 +1,297 @@
+package com.dyroha.reversi;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Plays games between two players without a GUI, one virtual thread per game with a limit on how
+ * many games are played at once. Each game gets its own players from the player factories, which
+ * are told when a game is over so a player can be reused by a later game, and starts with a few
+ * seeded random moves so games between players that always make the same move still differ. The
+ * computer players made from the command line are reused this way, clearing their tables between
+ * games, so a long tournament doesn't allocate megabytes of tables for every game.
+ * <p>
+ * Each finished game is written to the results file as soon as it ends, one line per game:
+ * game number, winner (b, w or draw), black's pieces, white's pieces, plies played and time taken
+ * in milliseconds. The time each player takes to choose a move is kept in a histogram for the
+ * summary
+ * <p>
+ * Usage: Tournament [games] [concurrent games] [results file] [black player] [white player] [size]
+ * <br>
+ * where a player is random, depth:N to search N plies or time:N to search for N milliseconds
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class Tournament {
+	/**
+	 * the number of random moves each game starts with unless set
+	 */
+	public static final int DEFAULT_RANDOM_PLIES = 4;
+
+	private static final long SEED = 20210429L;
+	// the table each computer player made from the command line gets, in megabytes
+	private static final int TABLE_MEGABYTES = 4;
+
+	private final int size;
+	private final PlayerFactory blackPlayers;
+	private final PlayerFactory whitePlayers;
+	private int randomPlies = DEFAULT_RANDOM_PLIES;
+	private long seed = SEED;
+
+	private final ReentrantLock resultsLock = new ReentrantLock();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final AtomicInteger blackWins = new AtomicInteger();
+	private final AtomicInteger whiteWins = new AtomicInteger();
+	private final AtomicInteger draws = new AtomicInteger();
+	private final AtomicInteger errors = new AtomicInteger();
+	// the first result that couldn't be written, no more games are started once there is one
+	private final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+	/**
+	 * Makes the players for one side of a tournament
+	 */
+	@FunctionalInterface
+	public interface PlayerFactory {
+		/**
+		 * gets the player for a game
+		 * @param game the game's number
+		 * @return the player, only used by that game until it is finished
+		 */
+		Player getPlayer(int game);
+
+		/**
+		 * called once a game the player was got for is over, it may then be got for another game
+		 * @param player the player
+		 */
+		default void finished(Player player) {
+		}
+	}
+
+	/**
+	 * Makes computer players, reusing those whose games are over so the most made is the most
+	 * games played at once. A reused player's table and solver are cleared rather than made again
+	 */
+	private static class ComputerPlayers implements PlayerFactory {
+		private final Supplier<ComputerPlayer> maker;
+		private final ConcurrentLinkedQueue<ComputerPlayer> idle = new ConcurrentLinkedQueue<>();
+
+		private ComputerPlayers(Supplier<ComputerPlayer> maker) {
+			this.maker = maker;
+		}
+
+		@Override
+		public Player getPlayer(int game) {
+			ComputerPlayer player = idle.poll();
+			if (player == null)
+				return maker.get();
+			player.clear();
+			return player;
+		}
+
+		@Override
+		public void finished(Player player) {
+			idle.add((ComputerPlayer) player);
+		}
+	}
+
+	/**
+	 * Creates a Tournament
+	 * @param size the size of the board
+	 * @param blackPlayers makes black's player for each game number
+	 * @param whitePlayers makes white's player for each game number
+	 */
+	public Tournament(int size, PlayerFactory blackPlayers, PlayerFactory whitePlayers) {
+		this.size = size;
+		this.blackPlayers = blackPlayers;
+		this.whitePlayers = whitePlayers;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Path results = Paths.get(args.length > 2 ? args[2] : "tournament.csv");
+		String black = args.length > 3 ? args[3] : "depth:4";
+		String white = args.length > 4 ? args[4] : "random";
+		int size = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+
+		Tournament tournament = new Tournament(size, players(black), players(white));
+		long start = System.nanoTime();
+		tournament.run(games, concurrency, results);
+		long elapsed = System.nanoTime() - start;
+		tournament.printSummary(games, elapsed, black, white);
+	}
+
+	/**
+	 * makes a player factory from its command line name
+	 * @param name random, depth:N or time:N
+	 * @return the factory, making a new random player for each game and reusing computer players
+	 * @throws IllegalArgumentException if the name is not a player
+	 */
+	public static PlayerFactory players(String name) {
+		if (name.equals("random"))
+			return game -> new RandomPlayer(SEED ^ game * 0x9e3779b97f4a7c15L);
+		int colon = name.indexOf(':');
+		if (colon > 0) {
+			long value = Long.parseLong(name.substring(colon + 1));
+			if (name.startsWith("depth:")) {
+				return new ComputerPlayers(() -> {
+					ComputerPlayer computer = new ComputerPlayer(Long.MAX_VALUE, new TranspositionTable(TABLE_MEGABYTES));
+					computer.setMaxDepth((int) value);
+					return computer;
+				});
+			}
+			if (name.startsWith("time:"))
+				return new ComputerPlayers(() -> new ComputerPlayer(value, new TranspositionTable(TABLE_MEGABYTES)));
+		}
+		throw new IllegalArgumentException("Unknown player: " + name);
+	}
+
+	/**
+	 * sets how many random moves each game starts with
+	 * @param randomPlies the number of plies, 0 for none
+	 */
+	public void setRandomPlies(int randomPlies) {
+		this.randomPlies = randomPlies;
+	}
+
+	/**
+	 * sets the seed the random opening moves come from, each game adds its number to it
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * plays the games, returning once they have all finished
+	 * @param games the number of games to play
+	 * @param concurrency the most games to play at once
+	 * @param results the file to write each game's result to, replaced if it exists
+	 * @throws IOException if the results can't be written, the games being played are finished first
+	 * @throws InterruptedException if interrupted while waiting for games to finish
+	 */
+	public void run(int games, int concurrency, Path results) throws IOException, InterruptedException {
+		Semaphore running = new Semaphore(Math.max(1, concurrency));
+		writeFailure.set(null);
+		try (BufferedWriter out = Files.newBufferedWriter(results)) {
+			out.write("game,winner,black,white,plies,time_ms");
+			out.newLine();
+			try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (int i = 0; i < games && writeFailure.get() == null; i++) {
+					// wait for a game to finish before starting another, so only concurrency games are live
+					running.acquire();
+					int number = i;
+					executor.submit(() -> {
+						try {
+							playGame(number, out);
+						} finally {
+							running.release();
+						}
+					});
+				}
+			}
+		}
+		IOException failure = writeFailure.get();
+		if (failure != null)
+			throw failure;
+	}
+
+	private void playGame(int number, BufferedWriter out) {
+		long start = System.nanoTime();
+		String result;
+		try {
+			ReversiGame game = play(number);
+			int black = game.getBlackCount();
+			int white = game.getWhiteCount();
+			String winner = "draw";
+			if (black > white) {
+				winner = "b";
+				blackWins.incrementAndGet();
+			} else if (white > black) {
+				winner = "w";
+				whiteWins.incrementAndGet();
+			} else {
+				draws.incrementAndGet();
+			}
+			result = number + "," + winner + "," + black + "," + white + "," + game.getTurnNumber() + ","
+					+ (System.nanoTime() - start) / 1_000_000;
+		} catch (RuntimeException e) {
+			errors.incrementAndGet();
+			result = number + ",error,,,," + e;
+		}
+		writeResult(out, result);
+	}
+
+	/**
+	 * plays one game to the end
+	 * @throws IllegalStateException if a player makes an invalid move
+	 */
+	private ReversiGame play(int number) {
+		Random random = new Random(seed + number);
+		Player black = blackPlayers.getPlayer(number);
+		Player white = whitePlayers.getPlayer(number);
+		try {
+			ReversiGame game = new ReversiGame(size);
+			int[] moves = new int[size * size];
+			while (!game.isGameOver()) {
+				char player = game.getCurrentPlayerChar();
+				int count = game.getValidMoves(player, moves);
+				if (count == 0) {
+					game.nextTurn();
+					continue;
+				}
+				int move;
+				if (game.getTurnNumber() < randomPlies) {
+					move = moves[random.nextInt(count)];
+				} else {
+					long moveStart = System.nanoTime();
+					move = (player == 'b' ? black : white).chooseMove(game);
+					latency.record(System.nanoTime() - moveStart);
+				}
+				if (move < 0 || move >= size * size || !game.makeMove(move / size, move % size))
+					throw new IllegalStateException(game.getCurrentPlayerStr() + " made an invalid move " + move);
+			}
+			return game;
+		} finally {
+			blackPlayers.finished(black);
+			whitePlayers.finished(white);
+		}
+	}
+
+	// results are written under a lock rather than synchronized so waiting games don't pin their carrier thread
+	private void writeResult(BufferedWriter out, String result) {
+		resultsLock.lock();
+		try {
+			out.write(result);
+			out.newLine();
+		} catch (IOException e) {
+			// thrown here it would only end up in the game's unread Future, so run throws it instead
+			writeFailure.compareAndSet(null, e);
+		} finally {
+			resultsLock.unlock();
+		}
+	}
+
+	private void printSummary(int games, long elapsed, String black, String white) {
+		System.out.printf("%d games of %s (black) against %s (white) in %.1f s, %.1f games/s%n", games, black,
+				white, elapsed / 1e9, games * 1e9 / elapsed);
+		System.out.printf("black wins %d, white wins %d, draws %d, errors %d%n", blackWins.get(), whiteWins.get(),
+				draws.get(), errors.get());
+		System.out.printf("%d moves, latency p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+				latency.getCount(), latency.getPercentile(50) / 1e3, latency.getPercentile(90) / 1e3,
+				latency.getPercentile(99) / 1e3, latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3);
+	}
+}
@@ -0,0 +1,163 @@
+package com.dyroha.reversi;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size table of search results keyed by position hash, shared by any number of searching
+ * threads without locks. Entries live in two primitive long[] arrays, one holding the packed
+ * entry and the other the hash XORed with it, so an entry torn by two threads writing at once no
+ * longer matches its hash and is ignored rather than trusted.
+ * <p>
+ * Slots come in pairs, the first keeps whichever entry was searched deepest and the second always
+ * takes the newest entry
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+public class TranspositionTable {
+	/**
+	 * the system property giving the size of the shared table in megabytes
+	 */
+	public static final String SIZE_PROPERTY = "reversi.hashMegabytes";
+	/**
+	 * the size of the shared table in megabytes when the property is not set
+	 */
+	public static final int DEFAULT_MEGABYTES = 16;
+
+	/**
+	 * the score is exact
+	 */
+	public static final int EXACT = 0;
+	/**
+	 * the score is a lower bound, the search failed high
+	 */
+	public static final int LOWER_BOUND = 1;
+	/**
+	 * the score is an upper bound, the search failed low
+	 */
+	public static final int UPPER_BOUND = 2;
+
+	// an entry packs the score in bits 0-31, depth in 32-39, bound in 40-41 and move + 1 in 42-63
+	private static final int ENTRY_BYTES = 16;
+	private static final int MAX_MOVE = (1 << 22) - 2;
+
+	private static TranspositionTable shared;
+
+	private final long[] checks;
+	private final long[] entries;
+	private final int mask;
+
+	/**
+	 * Creates an empty TranspositionTable
+	 * @param megabytes the memory to use, rounded down to a power of two number of entries
+	 */
+	public TranspositionTable(int megabytes) {
+		long wanted = Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+		int capacity = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+		checks = new long[capacity];
+		entries = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * gets the table shared by every computer player, created on first use with the size given by
+	 * the reversi.hashMegabytes system property
+	 * @return the shared table
+	 */
+	public static synchronized TranspositionTable shared() {
+		if (shared == null)
+			shared = new TranspositionTable(Integer.getInteger(SIZE_PROPERTY, DEFAULT_MEGABYTES));
+		return shared;
+	}
+
+	/**
+	 * looks up a position
+	 * @param hash the position's hash
+	 * @return the packed entry, 0 if the position is not in the table
+	 */
+	public long probe(long hash) {
+		int slot = (int) hash & mask & ~1;
+		for (int i = slot; i <= slot + 1; i++) {
+			long entry = entries[i];
+			if (entry != 0 && (checks[i] ^ entry) == hash)
+				return entry;
+		}
+		return 0;
+	}
+
+	/**
+	 * stores a search result for a position
+	 * @param hash the position's hash
+	 * @param move the best move found as (y * size + x), -1 if none
+	 * @param score the score found
+	 * @param depth the depth searched
+	 * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+	 */
+	public void store(long hash, int move, int score, int depth, int bound) {
+		if (move > MAX_MOVE)
+			move = -1;
+		long entry = (score & 0xffffffffL) | (long) Math.min(depth, 255) << 32 | (long) bound << 40
+				| (long) (move + 1) << 42;
+		int slot = (int) hash & mask & ~1;
+		long deepest = entries[slot];
+		if (deepest == 0 || (checks[slot] ^ deepest) == hash || depth >= getDepth(deepest)) {
+			checks[slot] = hash ^ entry;
+			entries[slot] = entry;
+		} else {
+			checks[slot + 1] = hash ^ entry;
+			entries[slot + 1] = entry;
+		}
+	}
+
+	/**
+	 * empties the table
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0);
+		Arrays.fill(checks, 0);
+	}
+
+	/**
+	 * gets the number of entries the table can hold
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return entries.length;
+	}
+
+	/**
+	 * gets the score of an entry
+	 * @param entry a packed entry from probe
+	 * @return the score
+	 */
+	public static int getScore(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * gets the depth of an entry
+	 * @param entry a packed entry from probe
+	 * @return the depth searched
+	 */
+	public static int getDepth(long entry) {
+		return (int) (entry >>> 32) & 0xff;
+	}
+
+	/**
+	 * gets the bound of an entry
+	 * @param entry a packed entry from probe
+	 * @return EXACT, LOWER_BOUND or UPPER_BOUND
+	 */
+	public static int getBound(long entry) {
+		return (int) (entry >>> 40) & 3;
+	}
+
+	/**
+	 * gets the best move of an entry
+	 * @param entry a packed entry from probe
+	 * @return the move as (y * size + x), -1 if none
+	 */
+	public static int getMove(long entry) {
+		return (int) (entry >>> 42) - 1;
+	}
+}
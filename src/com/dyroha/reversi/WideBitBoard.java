@@ -0,0 +1,475 @@
+package com.dyroha.reversi;
+
+import java.util.Arrays;
+
+/**
+ * A Board of any size stored as one packed long[] bitset (plane) per player. Each row is padded
+ * with an always empty guard collumn so space (y, x) is bit (y * (size + 1) + x), which means a
+ * move in any direction is a plain shift of the whole plane, carrying across words, and anything
+ * that walks off the side of the board lands in a guard bit rather than wrapping onto the next row.
+ * <p>
+ * The valid moves for each player and the frontier (empty spaces next to a piece) are kept as
+ * planes too. They are rebuilt in full only after setPiece, placing a piece updates them from the
+ * lines through the changed spaces
+ * 
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+class WideBitBoard implements Board {
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final int size;
+	private final int stride;
+	private final int bits;
+	private final int[] shifts;
+	private final int[] steps;
+	private final long[] black;
+	private final long[] white;
+	private final long[] spaces;
+	private final long[] blackMoves;
+	private final long[] whiteMoves;
+	private final long[] frontier;
+	private int blackMoveCount;
+	private int whiteMoveCount;
+	// set by setPiece, the move planes need rebuilding before they can be trusted
+	private boolean stale;
+	// scratch planes for finding valid moves
+	private final long[] gen;
+	private final long[] pro;
+	private final long[] tmp;
+	private final long[] empty;
+
+	/**
+	 * Creates an empty WideBitBoard
+	 * @param size the size of the board
+	 */
+	WideBitBoard(int size) {
+		this.size = size;
+		stride = size + 1;
+		bits = size * stride;
+		int words = (bits + 63) >>> 6;
+		black = new long[words];
+		white = new long[words];
+		spaces = new long[words];
+		blackMoves = new long[words];
+		whiteMoves = new long[words];
+		frontier = new long[words];
+		gen = new long[words];
+		pro = new long[words];
+		tmp = new long[words];
+		empty = new long[words];
+
+		shifts = new int[DIRECTIONS.length];
+		steps = new int[DIRECTIONS.length];
+		for (Direction dir : DIRECTIONS) {
+			shifts[dir.ordinal()] = dir.getDy() * stride + dir.getDx();
+			steps[dir.ordinal()] = dir.getDy() * size + dir.getDx();
+		}
+		for (int y = 0; y < size; y++) {
+			fillBits(spaces, y * stride, size);
+		}
+		stale = true;
+	}
+
+	/**
+	 * Creates a copy of a WideBitBoard
+	 * @param board the board to copy
+	 */
+	private WideBitBoard(WideBitBoard board) {
+		size = board.size;
+		stride = board.stride;
+		bits = board.bits;
+		shifts = board.shifts;
+		steps = board.steps;
+		black = board.black.clone();
+		white = board.white.clone();
+		spaces = board.spaces;
+		blackMoves = board.blackMoves.clone();
+		whiteMoves = board.whiteMoves.clone();
+		frontier = board.frontier.clone();
+		blackMoveCount = board.blackMoveCount;
+		whiteMoveCount = board.whiteMoveCount;
+		stale = board.stale;
+		gen = new long[black.length];
+		pro = new long[black.length];
+		tmp = new long[black.length];
+		empty = new long[black.length];
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public char getPiece(int y, int x) {
+		int i = index(y, x);
+		if (get(black, i))
+			return 'b';
+		if (get(white, i))
+			return 'w';
+		return '-';
+	}
+
+	@Override
+	public void setPiece(int y, int x, char piece) {
+		int i = index(y, x);
+		clear(black, i);
+		clear(white, i);
+		if (piece == 'b')
+			set(black, i);
+		else if (piece == 'w')
+			set(white, i);
+		stale = true;
+	}
+
+	@Override
+	public void getPieces(long[] black, long[] white) {
+		Arrays.fill(black, 0);
+		Arrays.fill(white, 0);
+		for (int y = 0; y < size; y++) {
+			copyBits(this.black, y * stride, black, y * size, size);
+			copyBits(this.white, y * stride, white, y * size, size);
+		}
+	}
+
+	@Override
+	public void setPieces(long[] black, long[] white) {
+		Arrays.fill(this.black, 0);
+		Arrays.fill(this.white, 0);
+		for (int y = 0; y < size; y++) {
+			copyBits(black, y * size, this.black, y * stride, size);
+			copyBits(white, y * size, this.white, y * stride, size);
+		}
+		stale = true;
+	}
+
+	@Override
+	public Board copy() {
+		return new WideBitBoard(this);
+	}
+
+	@Override
+	public boolean hasValidMove(char colour) {
+		if (stale)
+			rebuildMoves();
+		return (colour == 'b' ? blackMoveCount : whiteMoveCount) > 0;
+	}
+
+	@Override
+	public int countValidMoves(char colour) {
+		if (stale)
+			rebuildMoves();
+		return colour == 'b' ? blackMoveCount : whiteMoveCount;
+	}
+
+	@Override
+	public int getValidMoves(char colour, int[] moves) {
+		if (stale)
+			rebuildMoves();
+		long[] plane = colour == 'b' ? blackMoves : whiteMoves;
+		int count = 0;
+		for (int w = 0; w < plane.length; w++) {
+			for (long m = plane[w]; m != 0; m &= m - 1) {
+				int i = (w << 6) + Long.numberOfTrailingZeros(m);
+				moves[count++] = i / stride * size + i % stride;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int place(int y, int x, char colour, int[] flipped, int from) {
+		int move = index(y, x);
+		if (get(black, move) || get(white, move))
+			return 0;
+		long[] own = colour == 'b' ? black : white;
+		long[] opp = colour == 'b' ? white : black;
+		int count = 0;
+		for (int d = 0; d < shifts.length; d++) {
+			int shift = shifts[d];
+			// run along the opponent's pieces, guard bits are never set so this stops at the edge
+			int end = move + shift;
+			while (end >= 0 && end < bits && get(opp, end)) {
+				end += shift;
+			}
+			if (end == move + shift || end < 0 || end >= bits || !get(own, end))
+				continue;
+			int space = y * size + x;
+			for (int i = move + shift; i != end; i += shift) {
+				clear(opp, i);
+				set(own, i);
+				space += steps[d];
+				flipped[from + count++] = space;
+			}
+		}
+		if (count == 0)
+			return 0;
+		set(own, move);
+		if (!stale)
+			updateMoves(move, flipped, from, count);
+		return count;
+	}
+
+	@Override
+	public void unplace(int y, int x, char colour, int[] flipped, int from, int count) {
+		int move = index(y, x);
+		long[] own = colour == 'b' ? black : white;
+		long[] opp = colour == 'b' ? white : black;
+		clear(own, move);
+		for (int i = from; i < from + count; i++) {
+			int space = planeIndex(flipped[i]);
+			clear(own, space);
+			set(opp, space);
+		}
+		if (!stale)
+			updateMoves(move, flipped, from, count);
+	}
+
+	@Override
+	public int count(char colour) {
+		long[] plane = colour == 'b' ? black : white;
+		int count = 0;
+		for (long word : plane) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * updates the move planes and frontier after a piece is placed at or taken back from move,
+	 * flipping the given spaces. Only an empty space at the end of an unbroken line of pieces
+	 * running through a changed space can have changed whether it is a valid move
+	 */
+	private void updateMoves(int move, int[] flipped, int from, int count) {
+		// only move and its neighbours can have joined or left the frontier
+		updateFrontier(move);
+		for (int shift : shifts) {
+			if (isEmpty(move + shift))
+				updateFrontier(move + shift);
+		}
+		updateMove(move);
+		updateLinesThrough(move);
+		for (int i = from; i < from + count; i++) {
+			updateLinesThrough(planeIndex(flipped[i]));
+		}
+	}
+
+	private void updateFrontier(int i) {
+		boolean nextToPiece = false;
+		if (isEmpty(i)) {
+			for (int shift : shifts) {
+				int next = i + shift;
+				if (next >= 0 && next < bits && (get(black, next) || get(white, next))) {
+					nextToPiece = true;
+					break;
+				}
+			}
+		}
+		if (nextToPiece)
+			set(frontier, i);
+		else
+			clear(frontier, i);
+	}
+
+	private void updateLinesThrough(int changed) {
+		for (int shift : shifts) {
+			int i = changed + shift;
+			while (i >= 0 && i < bits && (get(black, i) || get(white, i))) {
+				i += shift;
+			}
+			if (isEmpty(i))
+				updateMove(i);
+		}
+	}
+
+	private void updateMove(int i) {
+		// a valid move has to be next to a piece, so anything off the frontier can be skipped
+		boolean onFrontier = get(frontier, i);
+		boolean blackCan = onFrontier && isValidMove(i, black, white);
+		if (blackCan != get(blackMoves, i)) {
+			blackMoves[i >>> 6] ^= 1L << i;
+			blackMoveCount += blackCan ? 1 : -1;
+		}
+		boolean whiteCan = onFrontier && isValidMove(i, white, black);
+		if (whiteCan != get(whiteMoves, i)) {
+			whiteMoves[i >>> 6] ^= 1L << i;
+			whiteMoveCount += whiteCan ? 1 : -1;
+		}
+	}
+
+	private boolean isEmpty(int i) {
+		return i >= 0 && i < bits && get(spaces, i) && !get(black, i) && !get(white, i);
+	}
+
+	private boolean isValidMove(int move, long[] own, long[] opp) {
+		for (int shift : shifts) {
+			int end = move + shift;
+			while (end >= 0 && end < bits && get(opp, end)) {
+				end += shift;
+			}
+			if (end != move + shift && end >= 0 && end < bits && get(own, end))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * rebuilds the move planes and frontier for the whole board a plane at a time
+	 */
+	private void rebuildMoves() {
+		for (int i = 0; i < empty.length; i++) {
+			empty[i] = spaces[i] & ~(black[i] | white[i]);
+		}
+		blackMoveCount = findValidMoves(black, white, blackMoves);
+		whiteMoveCount = findValidMoves(white, black, whiteMoves);
+
+		for (int i = 0; i < gen.length; i++) {
+			gen[i] = black[i] | white[i];
+			frontier[i] = 0;
+		}
+		for (int shift : shifts) {
+			shiftInto(gen, shift, tmp);
+			for (int i = 0; i < frontier.length; i++) {
+				frontier[i] |= tmp[i] & empty[i];
+			}
+		}
+		stale = false;
+	}
+
+	/**
+	 * finds every space own can place a piece, empty must already hold the empty spaces
+	 * @return the number of valid moves
+	 */
+	private int findValidMoves(long[] own, long[] opp, long[] moves) {
+		Arrays.fill(moves, 0);
+		for (int shift : shifts) {
+			System.arraycopy(own, 0, gen, 0, gen.length);
+			System.arraycopy(opp, 0, pro, 0, pro.length);
+			fill(shift);
+			for (int i = 0; i < gen.length; i++) {
+				gen[i] &= opp[i];
+			}
+			shiftInto(gen, shift, tmp);
+			for (int i = 0; i < tmp.length; i++) {
+				moves[i] |= tmp[i] & empty[i];
+			}
+		}
+		int count = 0;
+		for (long word : moves) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * extends each set bit of gen along a direction for as long as it covers bits of pro,
+	 * doubling the distance covered each round (a Kogge-Stone fill), pro is used up
+	 */
+	private void fill(int shift) {
+		for (int reach = 1;; reach *= 2) {
+			shiftInto(gen, shift * reach, tmp);
+			long grown = 0;
+			for (int i = 0; i < gen.length; i++) {
+				long added = pro[i] & tmp[i] & ~gen[i];
+				gen[i] |= added;
+				grown |= added;
+			}
+			// the longest run of pieces that can be flipped is size - 2, and a round that reaches
+			// nothing new means every run has ended sooner
+			if (2 * reach - 1 >= size - 2 || grown == 0)
+				return;
+			shiftInto(pro, shift * reach, tmp);
+			for (int i = 0; i < pro.length; i++) {
+				pro[i] &= tmp[i];
+			}
+		}
+	}
+
+	/**
+	 * shifts a whole plane towards higher bits (positive shift) or lower bits (negative shift)
+	 */
+	private static void shiftInto(long[] src, int shift, long[] dst) {
+		int n = src.length;
+		if (shift >= 0) {
+			int words = shift >>> 6;
+			int bit = shift & 63;
+			for (int i = n - 1; i >= 0; i--) {
+				int j = i - words;
+				long word = j >= 0 ? src[j] << bit : 0;
+				if (bit != 0 && j > 0)
+					word |= src[j - 1] >>> (64 - bit);
+				dst[i] = word;
+			}
+		} else {
+			int words = -shift >>> 6;
+			int bit = -shift & 63;
+			for (int i = 0; i < n; i++) {
+				int j = i + words;
+				long word = j < n ? src[j] >>> bit : 0;
+				if (bit != 0 && j + 1 < n)
+					word |= src[j + 1] << (64 - bit);
+				dst[i] = word;
+			}
+		}
+	}
+
+	/**
+	 * copies length bits from src starting at bit from into dst starting at bit to, a word at a
+	 * time, leaving the rest of dst as it was
+	 */
+	private static void copyBits(long[] src, int from, long[] dst, int to, int length) {
+		for (int done = 0; done < length; done += 64) {
+			int n = Math.min(64, length - done);
+			writeBits(dst, to + done, n, readBits(src, from + done, n));
+		}
+	}
+
+	private static void fillBits(long[] dst, int to, int length) {
+		for (int done = 0; done < length; done += 64) {
+			writeBits(dst, to + done, Math.min(64, length - done), -1L);
+		}
+	}
+
+	private static long readBits(long[] src, int from, int n) {
+		int w = from >>> 6;
+		int b = from & 63;
+		long word = src[w] >>> b;
+		if (b != 0 && b + n > 64)
+			word |= src[w + 1] << (64 - b);
+		return n == 64 ? word : word & ((1L << n) - 1);
+	}
+
+	private static void writeBits(long[] dst, int to, int n, long word) {
+		long mask = n == 64 ? -1L : (1L << n) - 1;
+		word &= mask;
+		int w = to >>> 6;
+		int b = to & 63;
+		dst[w] = dst[w] & ~(mask << b) | word << b;
+		if (b != 0 && b + n > 64)
+			dst[w + 1] = dst[w + 1] & ~(mask >>> (64 - b)) | word >>> (64 - b);
+	}
+
+	// converts a space encoded as y * size + x to its bit in a plane
+	private int planeIndex(int space) {
+		return space / size * stride + space % size;
+	}
+
+	private int index(int y, int x) {
+		if (y < 0 || y >= size || x < 0 || x >= size)
+			throw new ArrayIndexOutOfBoundsException("Space " + y + "," + x + " is outside the board");
+		return y * stride + x;
+	}
+
+	private static boolean get(long[] plane, int i) {
+		return (plane[i >>> 6] & (1L << i)) != 0;
+	}
+
+	private static void set(long[] plane, int i) {
+		plane[i >>> 6] |= 1L << i;
+	}
+
+	private static void clear(long[] plane, int i) {
+		plane[i >>> 6] &= ~(1L << i);
+	}
+}
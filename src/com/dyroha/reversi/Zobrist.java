@@ -0,0 +1,37 @@
+package com.dyroha.reversi;
+
+/**
+ * Zobrist keys for hashing reversi positions of any size. Rather than a table of random numbers
+ * per size, each key is made by mixing the space and colour, so any board size is covered without
+ * allocating anything
+ * 
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+final class Zobrist {
+	/**
+	 * the key XORed in when it is white's turn
+	 */
+	static final long WHITE_TO_MOVE = mix(-1);
+
+	// private constructor to hide the public super one
+	private Zobrist() {}
+
+	/**
+	 * gets the key for a piece on a space
+	 * @param space the space as (y * size + x)
+	 * @param colour the piece ('b' or 'w')
+	 * @return the key
+	 */
+	static long key(int space, char colour) {
+		return mix(2L * space + (colour == 'b' ? 0 : 1));
+	}
+
+	// the SplitMix64 finaliser, any change to the input changes about half of the output bits
+	private static long mix(long z) {
+		z += 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
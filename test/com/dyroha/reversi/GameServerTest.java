@@ -0,0 +1,107 @@
+package com.dyroha.reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests a GameServer copes with a client it can't write to while flushing. The server isn't run
+ * on its own thread, its private steps are called here one at a time so a write can be made to
+ * fail between reading the clients' messages and flushing the replies
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+class GameServerTest {
+
+	@Test
+	void failedWriteWhileFlushingEndsTheGame() throws Exception {
+		GameServer server = new GameServer(new InetSocketAddress("localhost", 0));
+		InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+		try (SocketChannel black = SocketChannel.open(address); SocketChannel white = SocketChannel.open(address)) {
+			ByteBuffer out = ByteBuffer.allocate(16);
+			GameProtocol.putJoin(out, 8);
+			send(black, out);
+			GameProtocol.putJoin(out, 8);
+			send(white, out);
+
+			invoke(server, "accept");
+			SelectionKey blackKey = serverSide(server, black);
+			SelectionKey whiteKey = serverSide(server, white);
+			// both joins are read before anything is flushed, so both STARTs are waiting to be written
+			invoke(server, "read", blackKey.attachment());
+			invoke(server, "read", whiteKey.attachment());
+			((SocketChannel) whiteKey.channel()).shutdownOutput();
+			invoke(server, "flush");
+
+			assertFalse(whiteKey.isValid());
+			ByteBuffer in = receive(black, 18);
+			assertEquals(GameProtocol.START, in.get());
+			in.position(8);
+			assertEquals(GameProtocol.GAME_OVER, in.get());
+			assertEquals(GameProtocol.ABANDONED, in.get());
+			assertEquals(1L, server.getGamesFinished());
+		} finally {
+			server.close();
+			invoke(server, "closeConnections");
+		}
+	}
+
+	private static void send(SocketChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	private static ByteBuffer receive(SocketChannel channel, int length) throws IOException {
+		ByteBuffer in = ByteBuffer.allocate(length);
+		while (in.hasRemaining()) {
+			if (channel.read(in) < 0)
+				throw new EOFException();
+		}
+		return in.flip();
+	}
+
+	// the key of the server's end of a client's connection
+	private static SelectionKey serverSide(GameServer server, SocketChannel client) throws Exception {
+		Field field = GameServer.class.getDeclaredField("selector");
+		field.setAccessible(true);
+		for (SelectionKey key : ((Selector) field.get(server)).keys()) {
+			if (key.channel() instanceof SocketChannel channel
+					&& channel.getRemoteAddress().equals(client.getLocalAddress()))
+				return key;
+		}
+		throw new AssertionError("Connection not accepted");
+	}
+
+	private static void invoke(GameServer server, String name, Object... args) throws Exception {
+		for (Method method : GameServer.class.getDeclaredMethods()) {
+			if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+				method.setAccessible(true);
+				try {
+					method.invoke(server, args);
+				} catch (InvocationTargetException e) {
+					if (e.getCause() instanceof Exception cause)
+						throw cause;
+					throw e;
+				}
+				return;
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+}
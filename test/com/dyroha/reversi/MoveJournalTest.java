@@ -0,0 +1,78 @@
+package com.dyroha.reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that recovering a long game loads its last snapshot and replays no more than
+ * SNAPSHOT_INTERVAL journal records, rather than the whole game
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+class MoveJournalTest {
+	// a 64x64 game runs to about 4000 moves, several snapshots' worth
+	private static final int SIZE = 64;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoveryReplaysAtMostOneSnapshotInterval() throws IOException {
+		ReversiGame game = new ReversiGame(SIZE);
+		GameSession session = new GameSession("Black", "White", 0, 0, game);
+		RandomPlayer player = new RandomPlayer(20210429L);
+		int records = 0;
+		try (MoveJournal journal = new MoveJournal(directory)) {
+			journal.snapshot(session);
+			while (!game.isGameOver()) {
+				int move = player.chooseMove(game);
+				if (move < 0)
+					game.makePass();
+				else
+					game.makeMove(move / SIZE, move % SIZE);
+				journal.recordMove(move);
+				records++;
+			}
+		}
+		assertTrue(records > 3 * MoveJournal.SNAPSHOT_INTERVAL, "game too short to test with: " + records);
+
+		// the snapshot on its own is the current position, decoding it replays nothing
+		ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(latestSnapshot()));
+		assertEquals(0, ReversiIO.decodeSession(snapshot).getGame().getMoveCount());
+
+		GameSession recovered;
+		try (MoveJournal journal = new MoveJournal(directory)) {
+			recovered = journal.recover();
+		}
+		assertNotNull(recovered);
+		// a recovered game's history is only the moves replayed from the journal
+		int replayed = recovered.getGame().getMoveCount();
+		assertEquals(records % MoveJournal.SNAPSHOT_INTERVAL, replayed);
+		assertTrue(replayed <= MoveJournal.SNAPSHOT_INTERVAL);
+		assertEquals(game.toString(), recovered.getGame().toString());
+		assertEquals("Black", recovered.getBlackName());
+	}
+
+	private Path latestSnapshot() throws IOException {
+		Path latest = null;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*.rvs")) {
+			for (Path file : files) {
+				assertEquals(null, latest, "only the newest snapshot is kept");
+				latest = file;
+			}
+		}
+		assertNotNull(latest);
+		return latest;
+	}
+}
@@ -0,0 +1,96 @@
+package com.dyroha.reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Tests that making moves allocates nothing once a game's buffers have grown to fit it, so a
+ * search or a long tournament makes no garbage per move. Each seeded game is played once to
+ * choose its moves, then played again on a game that has already been through them and taken them
+ * back, counting the bytes this thread allocates
+ *
+ * @version 18/10/2026
+ * @author Dylan Hamilton
+ */
+class ReversiGameAllocationTest {
+	private static final long SEED = 20210429L;
+	private static final int MEASUREMENTS = 5;
+
+	@Test
+	void movesAllocateNothingOn8x8() {
+		assertNoAllocation(8);
+	}
+
+	@Test
+	void movesAllocateNothingOn16x16() {
+		assertNoAllocation(16);
+	}
+
+	@Test
+	void movesAllocateNothingOn64x64() {
+		assertNoAllocation(64);
+	}
+
+	private static void assertNoAllocation(int size) {
+		int[] moves = chooseMoves(size);
+		ReversiGame game = new ReversiGame(size);
+		// the first time through grows the game's history and flip buffers, and loads the classes
+		play(game, moves);
+
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threads.setThreadAllocatedMemoryEnabled(true);
+		// the counter itself may allocate, so what an empty measurement counts is allowed for
+		long before = threads.getCurrentThreadAllocatedBytes();
+		long overhead = threads.getCurrentThreadAllocatedBytes() - before;
+		// the JVM can allocate on this thread now and then, such as when compiled code is thrown
+		// away, so the fewest bytes over a few games is what the moves themselves allocate
+		long allocated = Long.MAX_VALUE;
+		for (int i = 0; i < MEASUREMENTS; i++) {
+			while (game.unmakeMove()) {
+			}
+			before = threads.getCurrentThreadAllocatedBytes();
+			int played = play(game, moves);
+			allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before - overhead);
+			assertEquals(moves.length, played);
+		}
+
+		assertEquals(0L, allocated, allocated + " bytes allocated over " + moves.length + " moves on " + size + "x" + size);
+	}
+
+	// a seeded random game, each move as (y * size + x) or -1 for a pass
+	private static int[] chooseMoves(int size) {
+		ReversiGame game = new ReversiGame(size);
+		RandomPlayer player = new RandomPlayer(SEED ^ size);
+		while (!game.isGameOver()) {
+			int move = player.chooseMove(game);
+			if (move < 0)
+				game.makePass();
+			else
+				game.makeMove(move / size, move % size);
+		}
+		int[] moves = new int[game.getMoveCount()];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = game.getMove(i);
+		}
+		return moves;
+	}
+
+	// plays the moves the way a game is played, checking for a pass and the end before each
+	private static int play(ReversiGame game, int[] moves) {
+		int size = game.getSize();
+		int played = 0;
+		while (!game.isGameOver()) {
+			int move = moves[played++];
+			if (!game.testForValidTurn(game.getCurrentPlayerChar()))
+				game.makePass();
+			else if (!game.makeMove(move / size, move % size))
+				return -1;
+		}
+		return played;
+	}
+}